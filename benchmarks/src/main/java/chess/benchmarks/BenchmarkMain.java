@@ -0,0 +1,38 @@
+package chess.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, so runs can be compared
+ * (for example with jmh.morethan.io).
+ * <p>
+ * Usage: {@code java -jar benchmarks/target/benchmarks.jar [JMH options]}. Results go
+ * to {@code benchmarks.json} unless {@code -rff <file>} is given; any other JMH
+ * option, such as a benchmark name filter or {@code -p position=ENDGAME},
+ * is passed through.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(commandLine)
+                .warmupIterations(commandLine.getWarmupIterations().orElse(3))
+                .measurementIterations(commandLine.getMeasurementIterations().orElse(5))
+                .forks(commandLine.getForkCount().orElse(1))
+                .resultFormat(ResultFormatType.JSON)
+                .result(commandLine.getResult().orElse("benchmarks.json"));
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include("chess\\.benchmarks\\..*");
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
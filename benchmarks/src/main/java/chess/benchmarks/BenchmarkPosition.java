@@ -0,0 +1,73 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.perft.Perft;
+
+/**
+ * The positions every benchmark is run against, one per game phase plus a
+ * side to move that is in check
+ */
+public enum BenchmarkPosition {
+    OPENING {
+        @Override
+        public ChessGame game() {
+            return new ChessGame();
+        }
+    },
+    MIDDLEGAME {
+        @Override
+        public ChessGame game() {
+            return Perft.ReferencePosition.KIWIPETE.game();
+        }
+    },
+    ENDGAME {
+        @Override
+        public ChessGame game() {
+            return Perft.ReferencePosition.POSITION_3.game();
+        }
+    },
+    // 1. e4 d5 2. Bb5+, black to move
+    IN_CHECK {
+        @Override
+        public ChessGame game() {
+            return replay("e2e4", "d7d5", "f1b5");
+        }
+    };
+
+    /**
+     * @return a new game set up in this position
+     */
+    public abstract ChessGame game();
+
+    /**
+     * Plays moves in coordinate notation ("e2e4", "e7e8q") from the starting position
+     */
+    static ChessGame replay(String... moves) {
+        ChessGame game = new ChessGame();
+        try {
+            for (String move : moves) {
+                game.makeMove(parseMove(move));
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalArgumentException("Illegal move in replay", e);
+        }
+        return game;
+    }
+
+    static ChessMove parseMove(String move) {
+        ChessPosition start = ChessPosition.of(move.charAt(1) - '0', move.charAt(0) - 'a' + 1);
+        ChessPosition end = ChessPosition.of(move.charAt(3) - '0', move.charAt(2) - 'a' + 1);
+        ChessPiece.PieceType promotion = (move.length() > 4) ? switch (move.charAt(4)) {
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            default -> throw new IllegalArgumentException("Unknown promotion in " + move);
+        } : null;
+        return new ChessMove(start, end, promotion);
+    }
+}
@@ -0,0 +1,97 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link ChessGame} queries a client or server makes on every turn
+ */
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param
+    public BenchmarkPosition position;
+
+    private ChessGame game;
+    private ChessGame.TeamColor turn;
+    private ChessPosition[] ownPieces;
+    private ChessMove firstMove;
+
+    @Setup
+    public void setup() {
+        game = position.game();
+        turn = game.getTeamTurn();
+        List<ChessPosition> found = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getTeamColor() == turn) {
+                    found.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+        ownPieces = found.toArray(new ChessPosition[0]);
+        firstMove = game.legalMoves(turn).iterator().next();
+    }
+
+    /**
+     * Every legal move for the side to move, asked for square by square the
+     * way the UI does. Setting the turn first clears the cached results, so
+     * this measures generating them.
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        game.setTeamTurn(turn);
+        for (ChessPosition square : ownPieces) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    /**
+     * The same queries when nothing has changed since the last call, e.g.
+     * when the UI redraws
+     */
+    @Benchmark
+    public void validMovesCached(Blackhole blackhole) {
+        for (ChessPosition square : ownPieces) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    /**
+     * Validates and plays one move, then takes it back so every invocation
+     * starts from the same position
+     */
+    @Benchmark
+    public void makeMove() throws InvalidMoveException {
+        game.makeMove(firstMove);
+        game.undoMove();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(turn);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(turn);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(turn);
+    }
+}
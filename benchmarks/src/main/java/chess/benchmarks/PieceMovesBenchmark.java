@@ -0,0 +1,53 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pseudo-legal move generation for every piece of one type in a position,
+ * both sides included
+ */
+@State(Scope.Thread)
+public class PieceMovesBenchmark {
+
+    @Param
+    public BenchmarkPosition position;
+
+    @Param
+    public ChessPiece.PieceType type;
+
+    private ChessBoard board;
+    private ChessPosition[] squares;
+
+    @Setup
+    public void setup() {
+        board = position.game().getBoard();
+        List<ChessPosition> found = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getPieceType() == type) {
+                    found.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+        squares = found.toArray(new ChessPosition[0]);
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (ChessPosition square : squares) {
+            blackhole.consume(board.getPiece(square).pieceMoves(board, square));
+        }
+    }
+}
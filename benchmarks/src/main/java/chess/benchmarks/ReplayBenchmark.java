@@ -0,0 +1,48 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Replays a complete game through {@link ChessGame#makeMove}, checking for
+ * mate and stalemate after every move as the server does
+ */
+@State(Scope.Thread)
+public class ReplayBenchmark {
+
+    // Morphy vs. Duke of Brunswick and Count Isouard, Paris 1858
+    private static final String[] OPERA_GAME = {
+        "e2e4", "e7e5", "g1f3", "d7d6", "d2d4", "c8g4", "d4e5", "g4f3", "d1f3", "d6e5",
+        "f1c4", "g8f6", "f3b3", "d8e7", "b1c3", "c7c6", "c1g5", "b7b5", "c3b5", "c6b5",
+        "c4b5", "b8d7", "e1c1", "a8d8", "d1d7", "d8d7", "h1d1", "e7e6", "b5d7", "f6d7",
+        "b3b8", "d7b8", "d1d8"
+    };
+
+    private ChessMove[] moves;
+
+    @Setup
+    public void setup() {
+        moves = new ChessMove[OPERA_GAME.length];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = BenchmarkPosition.parseMove(OPERA_GAME[i]);
+        }
+    }
+
+    @Benchmark
+    public ChessGame replay() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+            ChessGame.TeamColor next = game.getTeamTurn();
+            if (game.isInCheckmate(next) || game.isInStalemate(next)) {
+                break;
+            }
+        }
+        return game;
+    }
+}
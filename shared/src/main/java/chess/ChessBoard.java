@@ -1,5 +1,7 @@
 package chess;
 
+import chess.eval.PieceSquareTables;
+
 import java.util.Arrays;
 
 /**
@@ -10,7 +12,23 @@ import java.util.Arrays;
  */
 public class ChessBoard {
 
-    private final ChessPiece[][] squares = new ChessPiece[8][8];
+    // Square-indexed mailbox (see Bitboards) kept alongside one bitboard per
+    // colour/type combination, so both "what is on this square" and "where are
+    // all of these pieces" are single lookups
+    private final ChessPiece[] squares = new ChessPiece[64];
+    private final long[] pieceBitboards = new long[12];
+    private final long[] colorBitboards = new long[2];
+    private long occupied;
+    // Zobrist key of the piece placement, updated as pieces come and go
+    private long zobristKey;
+    // Square of each color's king, indexed by TeamColor ordinal, or -1
+    private final int[] kingSquares = {-1, -1};
+    // Running evaluation terms (see chess.eval.Evaluator), updated as pieces come and go
+    private int midgameScore;
+    private int endgameScore;
+    private int phase;
+    // Piece counts per color and type (see Material)
+    private long materialSignature;
 
     public ChessBoard() {
     }
@@ -22,7 +40,13 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int square = squareOf(position);
+        if (squares[square] != null) {
+            removePiece(square);
+        }
+        if (piece != null) {
+            putPiece(square, piece);
+        }
     }
 
     /**
@@ -33,7 +57,197 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow() - 1][position.getColumn() - 1];
+        return squares[squareOf(position)];
+    }
+
+    /**
+     * @return the piece on a square index (see {@link Bitboards}), or null
+     */
+    public ChessPiece getPiece(int square) {
+        return squares[square];
+    }
+
+    /**
+     * @return bitboard of every piece of the given color and type
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[Bitboards.pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every piece of the given color
+     */
+    public long getBitboard(ChessGame.TeamColor color) {
+        return colorBitboards[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        return occupied;
+    }
+
+    /**
+     * @return square index of the given color's king, or -1 if it has none
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * @return position of the given color's king, or null if it has none
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquares[color.ordinal()];
+        return (square >= 0) ? Bitboards.toPosition(square) : null;
+    }
+
+    /**
+     * @return the Zobrist key of the piece placement alone; see
+     * {@link ChessGame#zobristKey()} for the full position key
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return sum of the middlegame piece-square values of every piece, from
+     * white's point of view
+     */
+    public int getMidgameScore() {
+        return midgameScore;
+    }
+
+    /**
+     * @return sum of the endgame piece-square values of every piece, from
+     * white's point of view
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return game phase from the material on the board, from 0 (pawns and
+     * kings only) up to about {@link PieceSquareTables#MAX_PHASE} (all pieces)
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return counts of every piece kind on the board packed into one value;
+     * see {@link Material}
+     */
+    public long getMaterialSignature() {
+        return materialSignature;
+    }
+
+    public int getPieceCount(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return Material.count(materialSignature, color, type);
+    }
+
+    /**
+     * Whether any piece of the given color attacks a square. Looks outward
+     * from the square: pawn diagonals, knight jumps and king steps first, then
+     * rook and bishop rays, returning as soon as an attacker is found.
+     *
+     * @param square square index (see {@link Bitboards})
+     * @param by     the attacking color
+     */
+    public boolean isAttacked(int square, ChessGame.TeamColor by) {
+        ChessGame.TeamColor defender = (by == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int base = by.ordinal() * 6;
+        if ((Bitboards.pawnAttacks(defender, square) & pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0
+                || (Bitboards.knightAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0
+                || (Bitboards.kingAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long rooks = pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        if (rooks != 0 && (Bitboards.rookAttacks(square, occupied) & rooks) != 0) {
+            return true;
+        }
+        long bishops = pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        return bishops != 0 && (Bitboards.bishopAttacks(square, occupied) & bishops) != 0;
+    }
+
+    /**
+     * All pieces of a color attacking a square, as if the board had the given
+     * occupancy (for example with a piece lifted off)
+     *
+     * @param square   square index (see {@link Bitboards})
+     * @param by       the attacking color
+     * @param occupied occupancy to use for slider rays
+     * @return bitboard of the attacking pieces
+     */
+    public long attackersTo(int square, ChessGame.TeamColor by, long occupied) {
+        ChessGame.TeamColor defender = (by == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int base = by.ordinal() * 6;
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (Bitboards.pawnAttacks(defender, square) & pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Bitboards.knightAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Bitboards.kingAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()])
+                | (Bitboards.rookAttacks(square, occupied)
+                        & (pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens))
+                | (Bitboards.bishopAttacks(square, occupied)
+                        & (pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens));
+    }
+
+    /**
+     * Places a piece on an empty square
+     */
+    void putPiece(int square, ChessPiece piece) {
+        long bit = Bitboards.bit(square);
+        squares[square] = piece;
+        pieceBitboards[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())] |= bit;
+        colorBitboards[piece.getTeamColor().ordinal()] |= bit;
+        occupied |= bit;
+        zobristKey ^= Zobrist.piece(piece, square);
+        midgameScore += PieceSquareTables.midgame(piece, square);
+        endgameScore += PieceSquareTables.endgame(piece, square);
+        phase += PieceSquareTables.phase(piece.getPieceType());
+        materialSignature += Material.unit(Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            kingSquares[piece.getTeamColor().ordinal()] = square;
+        }
+    }
+
+    /**
+     * Removes whatever piece is on a square
+     *
+     * @return the removed piece, or null if the square was empty
+     */
+    ChessPiece removePiece(int square) {
+        ChessPiece piece = squares[square];
+        if (piece == null) return null;
+
+        long bit = Bitboards.bit(square);
+        squares[square] = null;
+        pieceBitboards[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())] &= ~bit;
+        colorBitboards[piece.getTeamColor().ordinal()] &= ~bit;
+        occupied &= ~bit;
+        zobristKey ^= Zobrist.piece(piece, square);
+        midgameScore -= PieceSquareTables.midgame(piece, square);
+        endgameScore -= PieceSquareTables.endgame(piece, square);
+        phase -= PieceSquareTables.phase(piece.getPieceType());
+        materialSignature -= Material.unit(Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            // Hand-built boards may hold more than one king; fall back to any other
+            int color = piece.getTeamColor().ordinal();
+            long kings = pieceBitboards[color * 6 + ChessPiece.PieceType.KING.ordinal()];
+            kingSquares[color] = (kings != 0) ? Long.numberOfTrailingZeros(kings) : -1;
+        }
+        return piece;
+    }
+
+    private static int squareOf(ChessPosition position) {
+        int row = position.getRow() - 1;
+        int col = position.getColumn() - 1;
+        if (((row | col) & ~7) != 0) {
+            throw new IndexOutOfBoundsException("Position off the board: " + position.getRow() + "," + position.getColumn());
+        }
+        return row * 8 + col;
     }
 
     /**
@@ -41,12 +255,7 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        // Clear the board first
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                squares[row][col] = null;
-            }
-        }
+        clear();
 
         // Back row piece order: Rook, Knight, Bishop, Queen, King, Bishop, Knight, Rook
         ChessPiece.PieceType[] backRow = {
@@ -62,24 +271,46 @@ public class ChessBoard {
 
         // Place white pieces (rows 1 and 2)
         for (int col = 1; col <= 8; col++) {
-            addPiece(new ChessPosition(1, col), new ChessPiece(ChessGame.TeamColor.WHITE, backRow[col - 1]));
-            addPiece(new ChessPosition(2, col), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(1, col), ChessPiece.of(ChessGame.TeamColor.WHITE, backRow[col - 1]));
+            addPiece(ChessPosition.of(2, col), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
 
         // Place black pieces (rows 7 and 8)
         for (int col = 1; col <= 8; col++) {
-            addPiece(new ChessPosition(7, col), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(8, col), new ChessPiece(ChessGame.TeamColor.BLACK, backRow[col - 1]));
+            addPiece(ChessPosition.of(7, col), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(8, col), ChessPiece.of(ChessGame.TeamColor.BLACK, backRow[col - 1]));
         }
     }
 
+    /**
+     * Removes every piece from the board
+     */
+    void clear() {
+        Arrays.fill(squares, null);
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        occupied = 0L;
+        zobristKey = 0L;
+        Arrays.fill(kingSquares, -1);
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        materialSignature = 0L;
+    }
+
     public ChessBoard copy() {
         ChessBoard clone = new ChessBoard();
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                clone.squares[row][col] = this.squares[row][col];
-            }
-        }
+        System.arraycopy(squares, 0, clone.squares, 0, 64);
+        System.arraycopy(pieceBitboards, 0, clone.pieceBitboards, 0, 12);
+        System.arraycopy(colorBitboards, 0, clone.colorBitboards, 0, 2);
+        clone.occupied = occupied;
+        clone.zobristKey = zobristKey;
+        clone.kingSquares[0] = kingSquares[0];
+        clone.kingSquares[1] = kingSquares[1];
+        clone.midgameScore = midgameScore;
+        clone.endgameScore = endgameScore;
+        clone.phase = phase;
+        clone.materialSignature = materialSignature;
         return clone;
     }
 
@@ -88,11 +319,11 @@ public class ChessBoard {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChessBoard that = (ChessBoard) o;
-        return Arrays.deepEquals(squares, that.squares);
+        return zobristKey == that.zobristKey && Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(zobristKey);
     }
 }
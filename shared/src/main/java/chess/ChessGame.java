@@ -1,7 +1,10 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -15,14 +18,64 @@ public class ChessGame {
     private ChessBoard board;
     private TeamColor currentTurn;
 
-    private boolean whiteKingMoved;
-    private boolean blackKingMoved;
-    private boolean whiteRookKingsideMoved;
-    private boolean whiteRookQueensideMoved;
-    private boolean blackRookKingsideMoved;
-    private boolean blackRookQueensideMoved;
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING = 15;
+
+    // Castling rights that survive a move touching each square: moving the
+    // king or a rook off its home square, or capturing onto it, clears them
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[Bitboards.square(1, 5)] = ALL_CASTLING & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[Bitboards.square(1, 8)] = ALL_CASTLING & ~WHITE_KINGSIDE;
+        CASTLING_MASK[Bitboards.square(1, 1)] = ALL_CASTLING & ~WHITE_QUEENSIDE;
+        CASTLING_MASK[Bitboards.square(8, 5)] = ALL_CASTLING & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[Bitboards.square(8, 8)] = ALL_CASTLING & ~BLACK_KINGSIDE;
+        CASTLING_MASK[Bitboards.square(8, 1)] = ALL_CASTLING & ~BLACK_QUEENSIDE;
+    }
 
-    private ChessMove lastMove;
+    // Piece values for static exchange evaluation, indexed by PieceType ordinal
+    private static final int[] SEE_VALUES = {20000, 900, 330, 320, 500, 100};
+    // Cheapest first, the order pieces join an exchange
+    private static final ChessPiece.PieceType[] SEE_ORDER = {
+        ChessPiece.PieceType.PAWN,
+        ChessPiece.PieceType.KNIGHT,
+        ChessPiece.PieceType.BISHOP,
+        ChessPiece.PieceType.ROOK,
+        ChessPiece.PieceType.QUEEN,
+        ChessPiece.PieceType.KING
+    };
+
+    private static final int FLAG_EN_PASSANT = 1;
+    private static final int FLAG_CASTLE = 2;
+
+    private int castlingRights = ALL_CASTLING;
+    // Square a pawn skipped over with its last double step, or -1
+    private int enPassantSquare = -1;
+    // Plies since the last capture or pawn move, and the move number as in FEN
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+
+    // Undo stack for doMove/undoMove, one entry per ply. Not part of the
+    // game's serialized state, so it is (re)allocated lazily
+    private transient int undoCount;
+    private transient int[] undoMoves;
+    private transient int[] undoStates;
+    private transient ChessPiece[] undoMovedPieces;
+    private transient ChessPiece[] undoCapturedPieces;
+    private transient MoveList scratchMoves;
+    // Keys of the positions before each move, for repetition checks. Unlike
+    // the undo stack, copies keep the part since the last irreversible move
+    private transient long[] keyHistory;
+    private transient int keyCount;
+    // validMoves results per square, valid while the position key still
+    // matches; cleared by anything that changes the position
+    private transient List<ChessMove>[] validMovesCache;
+    private transient long validMovesKey;
 
     public ChessGame() {
         board = new ChessBoard();
@@ -30,6 +83,33 @@ public class ChessGame {
         currentTurn = TeamColor.WHITE;
     }
 
+    private ChessGame(ChessBoard board, TeamColor currentTurn) {
+        this.board = board;
+        this.currentTurn = currentTurn;
+    }
+
+    /**
+     * Creates a game from a FEN string, including castling rights, en
+     * passant square and move clocks. The clocks may be omitted.
+     *
+     * @param fen the position in Forsyth-Edwards Notation
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        ChessBoard board = new ChessBoard();
+        ChessGame game = new ChessGame(board, TeamColor.WHITE);
+        Fen.parse(fen, game, board);
+        return game;
+    }
+
+    /**
+     * @return the current position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -44,6 +124,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.currentTurn = team;
+        invalidateValidMoves();
     }
 
     /**
@@ -55,19 +136,48 @@ public class ChessGame {
     }
 
     /**
-     * Gets a valid moves for a piece at the given location
+     * Gets a valid moves for a piece at the given location. Results are
+     * remembered until the position changes, so asking again about any
+     * square of the same position is a lookup.
      *
      * @param startPosition the piece to get valid moves for
      * @return Set of valid moves for requested piece, or null if no piece at
-     * startPosition
+     * startPosition. The collection cannot be modified.
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         ChessPiece piece = board.getPiece(startPosition);
         if (piece == null) return null;
 
+        // The key also covers changes made directly to the board
+        long key = zobristKey();
+        if (validMovesCache == null) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            List<ChessMove>[] cache = new List[64];
+            validMovesCache = cache;
+        } else if (key != validMovesKey) {
+            Arrays.fill(validMovesCache, null);
+        }
+        validMovesKey = key;
+
+        int square = Bitboards.square(startPosition.getRow(), startPosition.getColumn());
+        List<ChessMove> cached = validMovesCache[square];
+        if (cached == null) {
+            cached = Collections.unmodifiableList(computeValidMoves(startPosition, piece));
+            validMovesCache[square] = cached;
+        }
+        return cached;
+    }
+
+    private void invalidateValidMoves() {
+        if (validMovesCache != null) {
+            Arrays.fill(validMovesCache, null);
+        }
+    }
+
+    private List<ChessMove> computeValidMoves(ChessPosition startPosition, ChessPiece piece) {
         TeamColor team = piece.getTeamColor();
         Collection<ChessMove> rawMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> legal = new ArrayList<>();
+        List<ChessMove> legal = new ArrayList<>();
 
         for (ChessMove move : rawMoves) {
             if (!leavesKingInCheck(move, team)) {
@@ -86,108 +196,206 @@ public class ChessGame {
         return legal;
     }
 
-    private void addCastlingMoves(ChessPosition kingPos, TeamColor team, Collection<ChessMove> moves) {
-        if (isInCheck(team)) return;
+    /**
+     * Gets every legal move for a team in one pass, working out checks and
+     * pins once instead of testing each candidate move
+     *
+     * @param team the team to generate moves for
+     * @return all legal moves for that team, including castling and en passant
+     */
+    public Collection<ChessMove> legalMoves(TeamColor team) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(board, team, castlingRights, enPassantSquare, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Same as {@link #legalMoves(TeamColor)}, but fills a reusable list with
+     * {@link PackedMove}s instead of allocating {@link ChessMove} objects
+     *
+     * @param team  the team to generate moves for
+     * @param moves cleared, then filled with every legal move for that team
+     */
+    public void legalMoves(TeamColor team, MoveList moves) {
+        moves.clear();
+        MoveGenerator.generate(board, team, castlingRights, enPassantSquare, moves);
+    }
+
+    /**
+     * Gets only the legal captures, en passant included, and promotions for
+     * a team: the moves that change the material balance
+     *
+     * @param team  the team to generate moves for
+     * @param moves cleared, then filled with those moves as {@link PackedMove}s
+     */
+    public void legalCaptures(TeamColor team, MoveList moves) {
+        moves.clear();
+        MoveGenerator.generateCaptures(board, team, enPassantSquare, moves);
+    }
+
+    /**
+     * Static exchange evaluation: the material the side making a capture
+     * can expect to win on the target square, if both sides keep recapturing
+     * with their cheapest piece for as long as it pays. Works on bitboards
+     * without playing any moves, and sees attackers lined up behind each
+     * other (x-rays). Pins and checks are not considered.
+     *
+     * @param move a legal move; quiet moves score what they lose if the piece can be taken
+     * @return expected gain in centipawns for the side making the move; negative if it loses material
+     */
+    public int see(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        return see(Bitboards.square(start.getRow(), start.getColumn()), Bitboards.square(end.getRow(), end.getColumn()),
+                move.getPromotionPiece());
+    }
+
+    /**
+     * Same as {@link #see(ChessMove)} for a {@link PackedMove}
+     */
+    public int see(int move) {
+        return see(PackedMove.from(move), PackedMove.to(move), PackedMove.promotion(move));
+    }
+
+    private int see(int from, int to, ChessPiece.PieceType promotion) {
+        ChessPiece piece = board.getPiece(from);
+        ChessPiece captured = board.getPiece(to);
+        long occupied = board.getOccupancy() ^ Bitboards.bit(from);
+
+        int[] gain = new int[32];
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && captured == null && (from & 7) != (to & 7)) {
+            // En passant: the captured pawn is beside the target square, not on it
+            occupied ^= Bitboards.bit((from & ~7) | (to & 7));
+            gain[0] = SEE_VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+        } else {
+            gain[0] = (captured == null) ? 0 : SEE_VALUES[captured.getPieceType().ordinal()];
+        }
+        // Value of whatever now stands on the target square, up for capture next
+        int onSquare = SEE_VALUES[piece.getPieceType().ordinal()];
+        if (promotion != null) {
+            gain[0] += SEE_VALUES[promotion.ordinal()] - SEE_VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+            onSquare = SEE_VALUES[promotion.ordinal()];
+        }
+
+        TeamColor side = (piece.getTeamColor() == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        int depth = 0;
+        while (true) {
+            depth++;
+            // Score if the side to capture now takes, assuming it is then recaptured
+            gain[depth] = onSquare - gain[depth - 1];
+            // Neither side can come out ahead by continuing
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) break;
+
+            long attackers = board.attackersTo(to, side, occupied) & occupied;
+            if (attackers == 0) break;
+            ChessPiece.PieceType attackerType = null;
+            long attacker = 0;
+            for (ChessPiece.PieceType type : SEE_ORDER) {
+                long candidates = attackers & board.getBitboard(side, type);
+                if (candidates != 0) {
+                    attackerType = type;
+                    attacker = candidates & -candidates;
+                    break;
+                }
+            }
+            TeamColor other = (side == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+            // The king may only take last, onto an undefended square
+            if (attackerType == ChessPiece.PieceType.KING
+                    && (board.attackersTo(to, other, occupied ^ attacker) & (occupied ^ attacker)) != 0) {
+                break;
+            }
+
+            occupied ^= attacker;
+            onSquare = SEE_VALUES[attackerType.ordinal()];
+            side = other;
+            if (depth == gain.length - 1) break;
+        }
 
+        // Roll back: each side stops capturing as soon as going on would lose
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    private void addCastlingMoves(ChessPosition kingPos, TeamColor team, Collection<ChessMove> moves) {
         int row = (team == TeamColor.WHITE) ? 1 : 8;
-        boolean kingMoved = (team == TeamColor.WHITE) ? whiteKingMoved : blackKingMoved;
-        if (kingMoved) return;
+        int kingside = (team == TeamColor.WHITE) ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = (team == TeamColor.WHITE) ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        if ((castlingRights & (kingside | queenside)) == 0) return;
         if (kingPos.getRow() != row || kingPos.getColumn() != 5) return;
+        if (isInCheck(team)) return;
 
         // Kingside
-        boolean rookKingsideMoved = (team == TeamColor.WHITE) ? whiteRookKingsideMoved : blackRookKingsideMoved;
-        if (!rookKingsideMoved) {
-            ChessPosition rookPos = new ChessPosition(row, 8);
+        if ((castlingRights & kingside) != 0) {
+            ChessPosition rookPos = ChessPosition.of(row, 8);
             ChessPiece rook = board.getPiece(rookPos);
             if (rook != null && rook.getPieceType() == ChessPiece.PieceType.ROOK && rook.getTeamColor() == team) {
-                if (board.getPiece(new ChessPosition(row, 6)) == null
-                        && board.getPiece(new ChessPosition(row, 7)) == null) {
-                    if (!isSquareAttacked(new ChessPosition(row, 6), team)
-                            && !isSquareAttacked(new ChessPosition(row, 7), team)) {
-                        moves.add(new ChessMove(kingPos, new ChessPosition(row, 7), null));
+                if (board.getPiece(ChessPosition.of(row, 6)) == null
+                        && board.getPiece(ChessPosition.of(row, 7)) == null) {
+                    if (!isSquareAttacked(ChessPosition.of(row, 6), team)
+                            && !isSquareAttacked(ChessPosition.of(row, 7), team)) {
+                        moves.add(new ChessMove(kingPos, ChessPosition.of(row, 7), null));
                     }
                 }
             }
         }
 
         // Queenside
-        boolean rookQueensideMoved = (team == TeamColor.WHITE) ? whiteRookQueensideMoved : blackRookQueensideMoved;
-        if (!rookQueensideMoved) {
-            ChessPosition rookPos = new ChessPosition(row, 1);
+        if ((castlingRights & queenside) != 0) {
+            ChessPosition rookPos = ChessPosition.of(row, 1);
             ChessPiece rook = board.getPiece(rookPos);
             if (rook != null && rook.getPieceType() == ChessPiece.PieceType.ROOK && rook.getTeamColor() == team) {
-                if (board.getPiece(new ChessPosition(row, 2)) == null
-                        && board.getPiece(new ChessPosition(row, 3)) == null
-                        && board.getPiece(new ChessPosition(row, 4)) == null) {
-                    if (!isSquareAttacked(new ChessPosition(row, 4), team)
-                            && !isSquareAttacked(new ChessPosition(row, 3), team)) {
-                        moves.add(new ChessMove(kingPos, new ChessPosition(row, 3), null));
+                if (board.getPiece(ChessPosition.of(row, 2)) == null
+                        && board.getPiece(ChessPosition.of(row, 3)) == null
+                        && board.getPiece(ChessPosition.of(row, 4)) == null) {
+                    if (!isSquareAttacked(ChessPosition.of(row, 4), team)
+                            && !isSquareAttacked(ChessPosition.of(row, 3), team)) {
+                        moves.add(new ChessMove(kingPos, ChessPosition.of(row, 3), null));
                     }
                 }
             }
         }
     }
 
+    /**
+     * Determines if any piece of a team attacks a square, whether or not the
+     * square is occupied
+     *
+     * @param square  the square to test
+     * @param byColor the attacking team
+     * @return True if a piece of {@code byColor} attacks the square
+     */
+    public boolean isAttacked(ChessPosition square, TeamColor byColor) {
+        return board.isAttacked(Bitboards.square(square.getRow(), square.getColumn()), byColor);
+    }
+
     private boolean isSquareAttacked(ChessPosition square, TeamColor defender) {
-        TeamColor opponent = (defender == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == opponent) {
-                    Collection<ChessMove> moves = piece.pieceMoves(board, pos);
-                    for (ChessMove move : moves) {
-                        if (move.getEndPosition().equals(square)) {
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-        return false;
+        return isAttacked(square, (defender == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE);
     }
 
     private void addEnPassantMoves(ChessPosition pawnPos, TeamColor team, Collection<ChessMove> moves) {
-        if (lastMove == null) return;
+        if (enPassantSquare < 0) return;
 
-        int enPassantRow = (team == TeamColor.WHITE) ? 5 : 4;
-        if (pawnPos.getRow() != enPassantRow) return;
-
-        ChessPiece lastPiece = board.getPiece(lastMove.getEndPosition());
-        if (lastPiece == null || lastPiece.getPieceType() != ChessPiece.PieceType.PAWN) return;
-        if (lastPiece.getTeamColor() == team) return;
-        if (Math.abs(lastMove.getStartPosition().getRow() - lastMove.getEndPosition().getRow()) != 2) return;
-        if (lastMove.getEndPosition().getRow() != pawnPos.getRow()) return;
-        if (Math.abs(lastMove.getEndPosition().getColumn() - pawnPos.getColumn()) != 1) return;
+        int from = Bitboards.square(pawnPos.getRow(), pawnPos.getColumn());
+        if ((Bitboards.pawnAttacks(team, from) & Bitboards.bit(enPassantSquare)) == 0) return;
 
+        // The pawn that just double-stepped sits beside us, behind the target square
         int direction = (team == TeamColor.WHITE) ? 1 : -1;
-        ChessMove enPassantMove = new ChessMove(pawnPos,
-                new ChessPosition(pawnPos.getRow() + direction, lastMove.getEndPosition().getColumn()), null);
+        ChessPiece passed = board.getPiece(enPassantSquare - 8 * direction);
+        if (passed == null || passed.getPieceType() != ChessPiece.PieceType.PAWN) return;
+        if (passed.getTeamColor() == team) return;
 
+        ChessMove enPassantMove = new ChessMove(pawnPos, Bitboards.toPosition(enPassantSquare), null);
         if (!leavesKingInCheck(enPassantMove, team)) {
             moves.add(enPassantMove);
         }
     }
 
     private boolean leavesKingInCheck(ChessMove move, TeamColor team) {
-        ChessBoard saved = board;
-        board = board.copy();
-
-        ChessPiece piece = board.getPiece(move.getStartPosition());
-        boolean isEnPassant = piece.getPieceType() == ChessPiece.PieceType.PAWN
-                && move.getStartPosition().getColumn() != move.getEndPosition().getColumn()
-                && board.getPiece(move.getEndPosition()) == null;
-
-        board.addPiece(move.getStartPosition(), null);
-        board.addPiece(move.getEndPosition(), piece);
-
-        if (isEnPassant) {
-            board.addPiece(new ChessPosition(move.getStartPosition().getRow(),
-                    move.getEndPosition().getColumn()), null);
-        }
-
+        doMove(move);
         boolean inCheck = isInCheck(team);
-        board = saved;
+        undoMove();
         return inCheck;
     }
 
@@ -213,50 +421,205 @@ public class ChessGame {
             throw new InvalidMoveException("Invalid move");
         }
 
-        // Track king/rook movement for castling
-        if (start.getRow() == 1 && start.getColumn() == 5) whiteKingMoved = true;
-        if (start.getRow() == 8 && start.getColumn() == 5) blackKingMoved = true;
-        if (start.getRow() == 1 && start.getColumn() == 1) whiteRookQueensideMoved = true;
-        if (start.getRow() == 1 && start.getColumn() == 8) whiteRookKingsideMoved = true;
-        if (start.getRow() == 8 && start.getColumn() == 1) blackRookQueensideMoved = true;
-        if (start.getRow() == 8 && start.getColumn() == 8) blackRookKingsideMoved = true;
+        doMove(move);
+        invalidateValidMoves();
+    }
 
-        // Detect en passant before executing
-        boolean isEnPassant = piece.getPieceType() == ChessPiece.PieceType.PAWN
-                && start.getColumn() != move.getEndPosition().getColumn()
-                && board.getPiece(move.getEndPosition()) == null;
+    /**
+     * Plays a move on the board in place without checking that it is legal,
+     * recording what is needed to take it back with {@link #undoMove()}.
+     * Handles captures, promotion, en passant, castling and the castling and
+     * en passant state, and passes the turn to the other team.
+     *
+     * @param move a move that {@link #validMoves} would allow
+     */
+    public void doMove(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        doMove(Bitboards.square(start.getRow(), start.getColumn()), Bitboards.square(end.getRow(), end.getColumn()),
+                move.getPromotionPiece());
+    }
+
+    /**
+     * Same as {@link #doMove(ChessMove)} for a {@link PackedMove}
+     *
+     * @param move a packed move that {@link #legalMoves(TeamColor, MoveList)} would produce
+     */
+    public void doMove(int move) {
+        doMove(PackedMove.from(move), PackedMove.to(move), PackedMove.promotion(move));
+    }
+
+    private void doMove(int from, int to, ChessPiece.PieceType promotion) {
+        pushKey(zobristKey());
+        ChessPiece piece = board.removePiece(from);
+        ChessPiece captured = board.removePiece(to);
+        int flags = 0;
+
+        // Pawn moving diagonally onto an empty square is an en passant capture
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && captured == null && (from & 7) != (to & 7)) {
+            captured = board.removePiece((from & ~7) | (to & 7));
+            flags |= FLAG_EN_PASSANT;
+        }
 
-        board.addPiece(start, null);
-        if (move.getPromotionPiece() != null) {
-            board.addPiece(move.getEndPosition(),
-                    new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
+        if (promotion != null) {
+            board.putPiece(to, ChessPiece.of(piece.getTeamColor(), promotion));
         } else {
-            board.addPiece(move.getEndPosition(), piece);
+            board.putPiece(to, piece);
         }
 
-        // Handle en passant capture
-        if (isEnPassant) {
-            board.addPiece(new ChessPosition(start.getRow(), move.getEndPosition().getColumn()), null);
+        // Castling also moves the rook
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            int rookFrom = (to > from) ? from + 3 : from - 4;
+            int rookTo = (to > from) ? from + 1 : from - 1;
+            board.putPiece(rookTo, board.removePiece(rookFrom));
+            flags |= FLAG_CASTLE;
         }
 
-        // Handle castling rook movement
-        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-            int colDiff = move.getEndPosition().getColumn() - start.getColumn();
-            if (colDiff == 2) {
-                ChessPosition rookFrom = new ChessPosition(start.getRow(), 8);
-                ChessPosition rookTo = new ChessPosition(start.getRow(), 6);
-                board.addPiece(rookTo, board.getPiece(rookFrom));
-                board.addPiece(rookFrom, null);
-            } else if (colDiff == -2) {
-                ChessPosition rookFrom = new ChessPosition(start.getRow(), 1);
-                ChessPosition rookTo = new ChessPosition(start.getRow(), 4);
-                board.addPiece(rookTo, board.getPiece(rookFrom));
-                board.addPiece(rookFrom, null);
-            }
+        pushUndo(from | (to << 6) | (flags << 12), piece, captured);
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = (piece.getPieceType() == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16)
+                ? (from + to) / 2 : -1;
+        halfmoveClock = (captured != null || piece.getPieceType() == ChessPiece.PieceType.PAWN) ? 0 : halfmoveClock + 1;
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        currentTurn = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    /**
+     * Takes back the most recent move played with {@link #doMove} or
+     * {@link #makeMove}, restoring the board, captured piece, turn, castling
+     * rights and en passant state exactly
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        undoCount--;
+        keyCount--;
+        int packed = undoMoves[undoCount];
+        int state = undoStates[undoCount];
+        ChessPiece piece = undoMovedPieces[undoCount];
+        ChessPiece captured = undoCapturedPieces[undoCount];
+        undoCapturedPieces[undoCount] = null;
+
+        int from = packed & 63;
+        int to = (packed >>> 6) & 63;
+        int flags = packed >>> 12;
+
+        board.removePiece(to);
+        board.putPiece(from, piece);
+
+        if ((flags & FLAG_CASTLE) != 0) {
+            int rookFrom = (to > from) ? from + 3 : from - 4;
+            int rookTo = (to > from) ? from + 1 : from - 1;
+            board.putPiece(rookFrom, board.removePiece(rookTo));
         }
 
-        lastMove = move;
+        if (captured != null) {
+            int capturedSquare = ((flags & FLAG_EN_PASSANT) != 0) ? (from & ~7) | (to & 7) : to;
+            board.putPiece(capturedSquare, captured);
+        }
+
+        castlingRights = state & ALL_CASTLING;
+        enPassantSquare = ((state >> 4) & 127) - 1;
+        halfmoveClock = state >>> 11;
         currentTurn = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    private void pushUndo(int packedMove, ChessPiece piece, ChessPiece captured) {
+        if (undoMoves == null) {
+            undoMoves = new int[64];
+            undoStates = new int[64];
+            undoMovedPieces = new ChessPiece[64];
+            undoCapturedPieces = new ChessPiece[64];
+        } else if (undoCount == undoMoves.length) {
+            int capacity = undoCount * 2;
+            undoMoves = Arrays.copyOf(undoMoves, capacity);
+            undoStates = Arrays.copyOf(undoStates, capacity);
+            undoMovedPieces = Arrays.copyOf(undoMovedPieces, capacity);
+            undoCapturedPieces = Arrays.copyOf(undoCapturedPieces, capacity);
+        }
+        undoMoves[undoCount] = packedMove;
+        undoStates[undoCount] = castlingRights | ((enPassantSquare + 1) << 4) | (halfmoveClock << 11);
+        undoMovedPieces[undoCount] = piece;
+        undoCapturedPieces[undoCount] = captured;
+        undoCount++;
+    }
+
+    private void pushKey(long key) {
+        if (keyHistory == null) {
+            keyHistory = new long[64];
+        } else if (keyCount == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, keyCount * 2);
+        }
+        keyHistory[keyCount++] = key;
+    }
+
+    /**
+     * Counts earlier occurrences of the current position with the same side
+     * to move, looking back only to the last capture or pawn move, since no
+     * position before one can come up again
+     *
+     * @return how many times the position has been seen before
+     */
+    public int repetitionCount() {
+        long key = zobristKey();
+        int count = 0;
+        int earliest = Math.max(0, keyCount - halfmoveClock);
+        for (int i = keyCount - 2; i >= earliest; i -= 2) {
+            if (keyHistory[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return whether the current position has now occurred three times,
+     * which lets either player claim a draw
+     */
+    public boolean isThreefoldRepetition() {
+        return repetitionCount() >= 2;
+    }
+
+    /**
+     * @return whether fifty moves by each side have passed without a capture
+     * or pawn move, which lets either player claim a draw. A checkmate
+     * delivered on the last of those moves still stands.
+     */
+    public boolean isFiftyMoveDraw() {
+        return halfmoveClock >= 100 && !isInCheckmate(currentTurn);
+    }
+
+    /**
+     * Whether neither side has the material left to checkmate by any series
+     * of legal moves: king against king, king and one minor piece against
+     * king, or kings with any number of bishops all on squares of one color
+     *
+     * @return true if the game is a dead draw
+     */
+    public boolean isInsufficientMaterial() {
+        long signature = board.getMaterialSignature();
+        if (Material.count(signature, ChessPiece.PieceType.PAWN) != 0
+                || Material.count(signature, ChessPiece.PieceType.ROOK) != 0
+                || Material.count(signature, ChessPiece.PieceType.QUEEN) != 0) {
+            return false;
+        }
+        int knights = Material.count(signature, ChessPiece.PieceType.KNIGHT);
+        int bishops = Material.count(signature, ChessPiece.PieceType.BISHOP);
+        if (knights + bishops <= 1) return true;
+        if (knights > 0) return false;
+
+        long allBishops = board.getBitboard(TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                | board.getBitboard(TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        return (allBishops & Bitboards.DARK_SQUARES) == 0 || (allBishops & ~Bitboards.DARK_SQUARES) == 0;
     }
 
     /**
@@ -266,39 +629,11 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPos = findKing(teamColor);
-        if (kingPos == null) return false;
+        int king = board.getKingSquare(teamColor);
+        if (king < 0) return false;
 
         TeamColor opponent = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == opponent) {
-                    Collection<ChessMove> moves = piece.pieceMoves(board, pos);
-                    for (ChessMove move : moves) {
-                        if (move.getEndPosition().equals(kingPos)) {
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    private ChessPosition findKing(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == teamColor
-                        && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    return pos;
-                }
-            }
-        }
-        return null;
+        return board.isAttacked(king, opponent);
     }
 
     /**
@@ -323,19 +658,11 @@ public class ChessGame {
     }
 
     private boolean hasValidMoves(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(pos);
-                    if (moves != null && !moves.isEmpty()) {
-                        return true;
-                    }
-                }
-            }
+        if (scratchMoves == null) {
+            scratchMoves = new MoveList();
         }
-        return false;
+        legalMoves(teamColor, scratchMoves);
+        return !scratchMoves.isEmpty();
     }
 
     /**
@@ -345,13 +672,65 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
-        whiteKingMoved = false;
-        blackKingMoved = false;
-        whiteRookKingsideMoved = false;
-        whiteRookQueensideMoved = false;
-        blackRookKingsideMoved = false;
-        blackRookQueensideMoved = false;
-        lastMove = null;
+        invalidateValidMoves();
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        undoCount = 0;
+        keyCount = 0;
+    }
+
+    /**
+     * Replaces the whole position, as read from FEN
+     */
+    void setPosition(ChessBoard board, TeamColor turn, int castlingRights, int enPassantSquare,
+                     int halfmoveClock, int fullmoveNumber) {
+        this.board = board;
+        invalidateValidMoves();
+        this.currentTurn = turn;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        undoCount = 0;
+        keyCount = 0;
+    }
+
+    /**
+     * @return plies played since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current full move, starting at 1 and
+     * increasing after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @param team     the team to ask about
+     * @param kingside true for kingside (short) castling, false for queenside
+     * @return whether the team still has that castling right; says nothing
+     * about whether castling is possible right now
+     */
+    public boolean hasCastlingRight(TeamColor team, boolean kingside) {
+        int right = (team == TeamColor.WHITE)
+                ? (kingside ? WHITE_KINGSIDE : WHITE_QUEENSIDE)
+                : (kingside ? BLACK_KINGSIDE : BLACK_QUEENSIDE);
+        return (castlingRights & right) != 0;
+    }
+
+    /**
+     * @return the square a pawn skipped over with a double step on the last
+     * move, where it can be captured en passant, or null
+     */
+    public ChessPosition getEnPassantSquare() {
+        return (enPassantSquare >= 0) ? Bitboards.toPosition(enPassantSquare) : null;
     }
 
     /**
@@ -363,16 +742,73 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * Copies this game's position: board, turn, castling rights, en passant
+     * state and move clocks, and enough history to detect repetitions. The
+     * undo history is not copied, so the copy cannot undo past moves.
+     *
+     * @return an independent game in the same position
+     */
+    public ChessGame copy() {
+        ChessGame clone = new ChessGame(board.copy(), currentTurn);
+        clone.castlingRights = castlingRights;
+        clone.enPassantSquare = enPassantSquare;
+        clone.halfmoveClock = halfmoveClock;
+        clone.fullmoveNumber = fullmoveNumber;
+        int keys = Math.min(keyCount, halfmoveClock);
+        if (keys > 0) {
+            clone.keyHistory = Arrays.copyOfRange(keyHistory, keyCount - keys, keyCount - keys + Math.max(keys, 64));
+            clone.keyCount = keys;
+        }
+        return clone;
+    }
+
+    /**
+     * 64-bit Zobrist key of the current position: piece placement, side to
+     * move, castling rights and (when a capture is possible) the en passant
+     * file. The placement part is maintained incrementally by the board, so
+     * this is a handful of XORs.
+     *
+     * @return the position key
+     */
+    public long zobristKey() {
+        long key = board.getZobristKey() ^ Zobrist.castling(castlingRights);
+        if (currentTurn == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        int epSquare = capturableEnPassantSquare();
+        if (epSquare >= 0) {
+            key ^= Zobrist.enPassant(epSquare);
+        }
+        return key;
+    }
+
+    /**
+     * The en passant square if a pawn of the side to move could actually
+     * capture onto it, otherwise -1, so positions that only differ by an
+     * unusable en passant square compare and hash the same
+     */
+    private int capturableEnPassantSquare() {
+        if (enPassantSquare < 0) return -1;
+        TeamColor opponent = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        long pawns = board.getBitboard(currentTurn, ChessPiece.PieceType.PAWN);
+        return (Bitboards.pawnAttacks(opponent, enPassantSquare) & pawns) != 0 ? enPassantSquare : -1;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChessGame that = (ChessGame) o;
-        return currentTurn == that.currentTurn && Objects.equals(board, that.board);
+        return zobristKey() == that.zobristKey()
+                && currentTurn == that.currentTurn
+                && castlingRights == that.castlingRights
+                && capturableEnPassantSquare() == that.capturableEnPassantSquare()
+                && Objects.equals(board, that.board);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currentTurn);
+        return Long.hashCode(zobristKey());
     }
 }
@@ -1,6 +1,5 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -12,6 +11,17 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    // One shared instance per color and type, handed out by of()
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -20,6 +30,20 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a color and type instead of allocating a
+     * new one. Pieces are immutable, so the instance can be used anywhere a
+     * constructed one could.
+     *
+     * @return the piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        if (pieceColor == null || type == null) {
+            return new ChessPiece(pieceColor, type);
+        }
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -54,87 +78,36 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        return switch (type) {
-            case KING -> getKingMoves(board, myPosition);
-            case QUEEN -> getQueenMoves(board, myPosition);
-            case BISHOP -> getBishopMoves(board, myPosition);
-            case KNIGHT -> getKnightMoves(board, myPosition);
-            case ROOK -> getRookMoves(board, myPosition);
-            case PAWN -> getPawnMoves(board, myPosition);
-        };
-    }
-
-    private Collection<ChessMove> getKingMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
-
-        // King can move one square in any direction
-        int[][] directions = {
-            {1, 0}, {-1, 0}, {0, 1}, {0, -1},  // orthogonal
-            {1, 1}, {1, -1}, {-1, 1}, {-1, -1} // diagonal
-        };
-
-        for (int[] dir : directions) {
-            int newRow = row + dir[0];
-            int newCol = col + dir[1];
-            addMoveIfValid(board, myPosition, newRow, newCol, moves);
-        }
-
-        return moves;
-    }
-
-    private Collection<ChessMove> getRookMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        // Rook moves horizontally and vertically
-        int[][] directions = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
-        addSlidingMoves(board, myPosition, directions, moves);
-        return moves;
+        MoveList moves = new MoveList(32);
+        pieceMoves(board, myPosition, moves);
+        return moves.toChessMoves();
     }
 
-    private Collection<ChessMove> getBishopMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        // Bishop moves diagonally
-        int[][] directions = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-        addSlidingMoves(board, myPosition, directions, moves);
-        return moves;
-    }
-
-    private Collection<ChessMove> getQueenMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        // Queen moves like rook + bishop (all 8 directions)
-        int[][] directions = {
-            {1, 0}, {-1, 0}, {0, 1}, {0, -1},  // orthogonal (rook)
-            {1, 1}, {1, -1}, {-1, 1}, {-1, -1} // diagonal (bishop)
-        };
-        addSlidingMoves(board, myPosition, directions, moves);
-        return moves;
-    }
-
-    private Collection<ChessMove> getKnightMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
-
-        // Knight moves in L-shape: 2 squares one direction, 1 square perpendicular
-        int[][] jumps = {
-            {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
-            {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
-        };
-
-        for (int[] jump : jumps) {
-            int newRow = row + jump[0];
-            int newCol = col + jump[1];
-            addMoveIfValid(board, myPosition, newRow, newCol, moves);
+    /**
+     * Same as {@link #pieceMoves(ChessBoard, ChessPosition)}, but appends the
+     * moves to a reusable list as {@link PackedMove}s instead of allocating
+     * {@link ChessMove} objects
+     */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, MoveList moves) {
+        int from = squareOf(myPosition);
+        long occupied = board.getOccupancy();
+        switch (type) {
+            // King can move one square in any direction
+            case KING -> addMoves(board, from, Bitboards.kingAttacks(from), moves);
+            // Queen moves like rook + bishop (all 8 directions)
+            case QUEEN -> addMoves(board, from, Bitboards.queenAttacks(from, occupied), moves);
+            // Bishop moves diagonally
+            case BISHOP -> addMoves(board, from, Bitboards.bishopAttacks(from, occupied), moves);
+            // Knight moves in L-shape: 2 squares one direction, 1 square perpendicular
+            case KNIGHT -> addMoves(board, from, Bitboards.knightAttacks(from), moves);
+            // Rook moves horizontally and vertically
+            case ROOK -> addMoves(board, from, Bitboards.rookAttacks(from, occupied), moves);
+            case PAWN -> addPawnMoves(board, from, moves);
         }
-
-        return moves;
     }
 
-    private Collection<ChessMove> getPawnMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
+    private void addPawnMoves(ChessBoard board, int from, MoveList moves) {
+        int row = Bitboards.row(from);
 
         // Direction depends on color: white moves up (+1), black moves down (-1)
         int direction = (pieceColor == ChessGame.TeamColor.WHITE) ? 1 : -1;
@@ -142,102 +115,68 @@ public class ChessPiece {
         int promotionRow = (pieceColor == ChessGame.TeamColor.WHITE) ? 8 : 1;
 
         int newRow = row + direction;
+        if (newRow < 1 || newRow > 8) {
+            return;
+        }
 
         // Forward move (1 square)
-        if (newRow >= 1 && newRow <= 8) {
-            ChessPosition oneAhead = new ChessPosition(newRow, col);
-            if (board.getPiece(oneAhead) == null) {
-                addPawnMove(myPosition, oneAhead, newRow == promotionRow, moves);
-
-                // Double move from starting position
-                if (row == startRow) {
-                    int twoAheadRow = row + (2 * direction);
-                    ChessPosition twoAhead = new ChessPosition(twoAheadRow, col);
-                    if (board.getPiece(twoAhead) == null) {
-                        moves.add(new ChessMove(myPosition, twoAhead, null));
-                    }
-                }
+        int oneAhead = from + 8 * direction;
+        long occupied = board.getOccupancy();
+        if ((occupied & Bitboards.bit(oneAhead)) == 0) {
+            addPawnMove(from, oneAhead, newRow == promotionRow, 0, moves);
+
+            // Double move from starting position
+            int twoAhead = oneAhead + 8 * direction;
+            if (row == startRow && (occupied & Bitboards.bit(twoAhead)) == 0) {
+                moves.add(PackedMove.of(from, twoAhead, null, PackedMove.DOUBLE_PUSH));
             }
         }
 
         // Diagonal captures
-        int[] captureCols = {col - 1, col + 1};
-        for (int captureCol : captureCols) {
-            if (captureCol >= 1 && captureCol <= 8 && newRow >= 1 && newRow <= 8) {
-                ChessPosition capturePos = new ChessPosition(newRow, captureCol);
-                ChessPiece pieceAtTarget = board.getPiece(capturePos);
-                if (pieceAtTarget != null && pieceAtTarget.getTeamColor() != this.pieceColor) {
-                    addPawnMove(myPosition, capturePos, newRow == promotionRow, moves);
-                }
-            }
+        long enemies = board.getBitboard(opponent());
+        long captures = Bitboards.pawnAttacks(pieceColor, from) & enemies;
+        while (captures != 0) {
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            addPawnMove(from, to, newRow == promotionRow, PackedMove.CAPTURE, moves);
         }
-
-        return moves;
     }
 
     /**
      * Helper to add pawn moves, handling promotion
      */
-    private void addPawnMove(ChessPosition from, ChessPosition to, boolean isPromotion, Collection<ChessMove> moves) {
+    private void addPawnMove(int from, int to, boolean isPromotion, int flags, MoveList moves) {
         if (isPromotion) {
             // Must promote to one of these pieces
-            moves.add(new ChessMove(from, to, PieceType.QUEEN));
-            moves.add(new ChessMove(from, to, PieceType.ROOK));
-            moves.add(new ChessMove(from, to, PieceType.BISHOP));
-            moves.add(new ChessMove(from, to, PieceType.KNIGHT));
+            moves.add(PackedMove.of(from, to, PieceType.QUEEN, flags));
+            moves.add(PackedMove.of(from, to, PieceType.ROOK, flags));
+            moves.add(PackedMove.of(from, to, PieceType.BISHOP, flags));
+            moves.add(PackedMove.of(from, to, PieceType.KNIGHT, flags));
         } else {
-            moves.add(new ChessMove(from, to, null));
+            moves.add(PackedMove.of(from, to, null, flags));
         }
     }
 
     /**
-     * Helper for sliding pieces (rook, bishop, queen) - moves in a direction until blocked
+     * Helper that turns a bitboard of attacked squares into moves, skipping
+     * squares occupied by friendly pieces
      */
-    private void addSlidingMoves(ChessBoard board, ChessPosition from, int[][] directions, Collection<ChessMove> moves) {
-        int row = from.getRow();
-        int col = from.getColumn();
-
-        for (int[] dir : directions) {
-            int newRow = row + dir[0];
-            int newCol = col + dir[1];
-
-            while (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
-                ChessPosition to = new ChessPosition(newRow, newCol);
-                ChessPiece pieceAtTarget = board.getPiece(to);
-
-                if (pieceAtTarget == null) {
-                    // Empty square - can move here and continue
-                    moves.add(new ChessMove(from, to, null));
-                } else if (pieceAtTarget.getTeamColor() != this.pieceColor) {
-                    // Enemy piece - can capture but must stop
-                    moves.add(new ChessMove(from, to, null));
-                    break;
-                } else {
-                    // Friendly piece - blocked, stop
-                    break;
-                }
-
-                newRow += dir[0];
-                newCol += dir[1];
-            }
+    private void addMoves(ChessBoard board, int from, long targets, MoveList moves) {
+        targets &= ~board.getBitboard(pieceColor);
+        long enemies = board.getBitboard(opponent());
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(PackedMove.of(from, to, null, (enemies & Bitboards.bit(to)) != 0 ? PackedMove.CAPTURE : 0));
         }
     }
 
-    /**
-     * Helper method to add a move if the target square is valid (on board and not occupied by friendly piece)
-     */
-    private void addMoveIfValid(ChessBoard board, ChessPosition from, int toRow, int toCol, Collection<ChessMove> moves) {
-        if (toRow < 1 || toRow > 8 || toCol < 1 || toCol > 8) {
-            return; // Off the board
-        }
-
-        ChessPosition to = new ChessPosition(toRow, toCol);
-        ChessPiece pieceAtTarget = board.getPiece(to);
+    private ChessGame.TeamColor opponent() {
+        return (pieceColor == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
 
-        if (pieceAtTarget == null || pieceAtTarget.getTeamColor() != this.pieceColor) {
-            // Empty square or enemy piece - valid move
-            moves.add(new ChessMove(from, to, null));
-        }
+    private static int squareOf(ChessPosition position) {
+        return Bitboards.square(position.getRow(), position.getColumn());
     }
 
     @Override
@@ -250,6 +189,6 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return 31 * Objects.hashCode(pieceColor) + Objects.hashCode(type);
     }
 }
@@ -0,0 +1,224 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation.
+ * <p>
+ * The parser walks the string once by index with table lookups for piece
+ * letters, so loading a position allocates nothing beyond the board it
+ * fills. Trailing halfmove and fullmove fields may be left out, as many
+ * sources do, and default to 0 and 1.
+ * <p>
+ * Fields that would put the game in an inconsistent state are rejected
+ * rather than loaded: castling rights without the king and rook on their
+ * home squares, an en passant square with no pawn that just double-pushed
+ * past it, and move numbers too large to be real.
+ */
+final class Fen {
+
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Far beyond any real game, and small enough for ChessGame's undo state
+    // to hold the halfmove clock with room to keep counting
+    static final int MAX_MOVE_NUMBER = 1 << 20;
+
+    // King and rook home squares for each castling right
+    private static final int[] CASTLING_RIGHTS = {
+            ChessGame.WHITE_KINGSIDE, ChessGame.WHITE_QUEENSIDE, ChessGame.BLACK_KINGSIDE, ChessGame.BLACK_QUEENSIDE};
+    private static final int[] CASTLING_KING = {4, 4, 60, 60};
+    private static final int[] CASTLING_ROOK = {7, 0, 63, 56};
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final char[] LETTERS = {'k', 'q', 'b', 'n', 'r', 'p'};
+    // Piece index (see Bitboards.pieceIndex) for each FEN letter, or -1
+    private static final int[] PIECE_INDEX = new int[128];
+
+    static {
+        Arrays.fill(PIECE_INDEX, -1);
+        for (int type = 0; type < 6; type++) {
+            PIECE_INDEX[LETTERS[type]] = 6 + type;
+            PIECE_INDEX[Character.toUpperCase(LETTERS[type])] = type;
+        }
+    }
+
+    private Fen() {
+    }
+
+    /**
+     * Parses {@code fen} into {@code board}, which is cleared first, and
+     * hands the remaining fields to {@code game}
+     *
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    static void parse(CharSequence fen, ChessGame game, ChessBoard board) {
+        int length = fen.length();
+        int i = 0;
+
+        board.clear();
+        int row = 8;
+        int col = 1;
+        for (; i < length; i++) {
+            char c = fen.charAt(i);
+            if (c == ' ') break;
+            if (c == '/') {
+                if (col != 9 || row == 1) throw invalid(fen, "bad rank length");
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 9) throw invalid(fen, "rank overflows");
+            } else {
+                int piece = (c < 128) ? PIECE_INDEX[c] : -1;
+                if (piece < 0) throw invalid(fen, "unknown piece '" + c + "'");
+                if (col > 8) throw invalid(fen, "rank overflows");
+                board.putPiece(Bitboards.square(row, col), ChessPiece.of(
+                        (piece < 6) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK, TYPES[piece % 6]));
+                col++;
+            }
+        }
+        if (row != 1 || col != 9) throw invalid(fen, "expected 8 ranks of 8 squares");
+
+        i = skipSpace(fen, i);
+        if (i >= length) throw invalid(fen, "missing side to move");
+        ChessGame.TeamColor turn = switch (fen.charAt(i++)) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw invalid(fen, "side to move must be 'w' or 'b'");
+        };
+
+        i = skipSpace(fen, i);
+        int castling = 0;
+        if (i < length && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                castling |= switch (fen.charAt(i)) {
+                    case 'K' -> ChessGame.WHITE_KINGSIDE;
+                    case 'Q' -> ChessGame.WHITE_QUEENSIDE;
+                    case 'k' -> ChessGame.BLACK_KINGSIDE;
+                    case 'q' -> ChessGame.BLACK_QUEENSIDE;
+                    default -> throw invalid(fen, "bad castling field");
+                };
+            }
+        }
+        for (int right = 0; right < CASTLING_RIGHTS.length; right++) {
+            if ((castling & CASTLING_RIGHTS[right]) == 0) continue;
+            ChessGame.TeamColor color = (right < 2) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            if (!isPiece(board, CASTLING_KING[right], color, ChessPiece.PieceType.KING)
+                    || !isPiece(board, CASTLING_ROOK[right], color, ChessPiece.PieceType.ROOK)) {
+                throw invalid(fen, "castling right without king and rook on their squares");
+            }
+        }
+
+        i = skipSpace(fen, i);
+        int enPassant = -1;
+        if (i < length && fen.charAt(i) == '-') {
+            i++;
+        } else if (i + 1 < length) {
+            int file = fen.charAt(i) - 'a' + 1;
+            int rank = fen.charAt(i + 1) - '0';
+            // The target is behind a pawn of the side that just moved
+            int targetRank = (turn == ChessGame.TeamColor.WHITE) ? 6 : 3;
+            int pawnRank = (turn == ChessGame.TeamColor.WHITE) ? 5 : 4;
+            ChessGame.TeamColor mover = (turn == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            if (file < 1 || file > 8 || rank != targetRank
+                    || board.getPiece(Bitboards.square(rank, file)) != null
+                    || !isPiece(board, Bitboards.square(pawnRank, file), mover, ChessPiece.PieceType.PAWN)) {
+                throw invalid(fen, "bad en passant square");
+            }
+            enPassant = Bitboards.square(rank, file);
+            i += 2;
+        }
+
+        i = skipSpace(fen, i);
+        int halfmove = 0;
+        int fullmove = 1;
+        if (i < length) {
+            int start = i;
+            for (halfmove = 0; i < length && fen.charAt(i) != ' '; i++) {
+                halfmove = halfmove * 10 + digit(fen, i);
+                if (halfmove > MAX_MOVE_NUMBER) throw invalid(fen, "bad halfmove clock");
+            }
+            if (i == start) throw invalid(fen, "bad halfmove clock");
+            i = skipSpace(fen, i);
+            if (i < length) {
+                for (fullmove = 0; i < length && fen.charAt(i) != ' '; i++) {
+                    fullmove = fullmove * 10 + digit(fen, i);
+                    if (fullmove > MAX_MOVE_NUMBER) throw invalid(fen, "bad fullmove number");
+                }
+                fullmove = Math.max(fullmove, 1);
+            }
+        }
+        if (skipSpace(fen, i) != length) throw invalid(fen, "unexpected trailing text");
+
+        game.setPosition(board, turn, castling, enPassant, halfmove, fullmove);
+    }
+
+    /**
+     * @return the game's position as a full six-field FEN string
+     */
+    static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char letter = LETTERS[piece.getPieceType().ordinal()];
+                fen.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) fen.append((char) ('0' + empty));
+            if (row > 1) fen.append('/');
+        }
+
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int length = fen.length();
+        if (game.hasCastlingRight(ChessGame.TeamColor.WHITE, true)) fen.append('K');
+        if (game.hasCastlingRight(ChessGame.TeamColor.WHITE, false)) fen.append('Q');
+        if (game.hasCastlingRight(ChessGame.TeamColor.BLACK, true)) fen.append('k');
+        if (game.hasCastlingRight(ChessGame.TeamColor.BLACK, false)) fen.append('q');
+        if (fen.length() == length) fen.append('-');
+
+        ChessPosition enPassant = game.getEnPassantSquare();
+        fen.append(' ');
+        if (enPassant == null) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + enPassant.getColumn() - 1)).append(enPassant.getRow());
+        }
+
+        return fen.append(' ').append(game.getHalfmoveClock())
+                .append(' ').append(game.getFullmoveNumber())
+                .toString();
+    }
+
+    private static boolean isPiece(ChessBoard board, int square, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ChessPiece piece = board.getPiece(square);
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+
+    private static int skipSpace(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') i++;
+        return i;
+    }
+
+    private static int digit(CharSequence fen, int i) {
+        char c = fen.charAt(i);
+        if (c < '0' || c > '9') throw invalid(fen, "bad move number");
+        return c - '0';
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN (" + reason + "): " + fen);
+    }
+}
@@ -0,0 +1,167 @@
+package chess;
+
+/**
+ * Magic-bitboard attack tables for rooks and bishops.
+ * <p>
+ * For every square the relevant blockers (the squares along each ray minus
+ * the board edge) are multiplied by a per-square magic number, and the top
+ * bits of the product index a table holding the precomputed attack set.
+ * The magics are found once per JVM by a seeded random search when this
+ * class is first used, so the tables are identical from run to run.
+ */
+final class MagicBitboards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_ATTACKS;
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_ATTACKS;
+
+    // Per-rank seeds for the xorshift64* generator, chosen so that each
+    // square's search succeeds within a few candidates
+    private static final long[] RANK_SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+
+    private static long seed;
+
+    static {
+        ROOK_ATTACKS = build(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+        BISHOP_ATTACKS = build(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+    }
+
+    private MagicBitboards() {
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_ATTACKS[ROOK_OFFSETS[square] + index];
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[square] + index];
+    }
+
+    private static long[] build(int[][] directions, long[] masks, long[] magics, int[] shifts, int[] offsets) {
+        int total = 0;
+        for (int square = 0; square < 64; square++) {
+            masks[square] = relevantBlockers(square, directions);
+            int bits = Long.bitCount(masks[square]);
+            shifts[square] = 64 - bits;
+            offsets[square] = total;
+            total += 1 << bits;
+        }
+
+        long[] table = new long[total];
+        for (int square = 0; square < 64; square++) {
+            findMagic(square, directions, masks[square], shifts[square], offsets[square], magics, table);
+        }
+        return table;
+    }
+
+    /**
+     * Searches for a magic that maps every blocker subset of the square's mask
+     * to a table slot without a destructive collision, then fills the slots
+     */
+    private static void findMagic(int square, int[][] directions, long mask, int shift, int offset,
+                                  long[] magics, long[] table) {
+        int size = 1 << (64 - shift);
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+
+        // Enumerate every subset of the mask (carry-rippler)
+        long subset = 0L;
+        int count = 0;
+        do {
+            occupancies[count] = subset;
+            attacks[count] = slide(square, subset, directions);
+            count++;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+
+        seed = RANK_SEEDS[Bitboards.row(square) - 1];
+        long[] used = new long[size];
+        int[] epoch = new int[size];
+        for (int attempt = 1; ; attempt++) {
+            long magic = nextRandom() & nextRandom() & nextRandom();
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) continue;
+
+            boolean failed = false;
+            for (int i = 0; i < count && !failed; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> shift);
+                if (epoch[index] < attempt) {
+                    epoch[index] = attempt;
+                    used[index] = attacks[i];
+                } else if (used[index] != attacks[i]) {
+                    failed = true;
+                }
+            }
+
+            if (!failed) {
+                magics[square] = magic;
+                for (int i = 0; i < count; i++) {
+                    table[offset + (int) ((occupancies[i] * magic) >>> shift)] = attacks[i];
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Squares whose occupancy can change the attack set: every ray square
+     * except the last one before the edge
+     */
+    private static long relevantBlockers(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] dir : directions) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while (onBoard(row + dir[0], col + dir[1])) {
+                mask |= Bitboards.bit(Bitboards.square(row, col));
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Reference ray walk used only while building the tables
+     */
+    private static long slide(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] dir : directions) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while (onBoard(row, col)) {
+                long target = Bitboards.bit(Bitboards.square(row, col));
+                attacks |= target;
+                if ((occupied & target) != 0) {
+                    break;
+                }
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    private static long nextRandom() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+}
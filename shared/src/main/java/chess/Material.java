@@ -0,0 +1,61 @@
+package chess;
+
+/**
+ * Material signatures: how many pieces of each color and type are on the
+ * board, packed into one {@code long}.
+ * <p>
+ * Each of the twelve piece kinds (see {@link Bitboards#pieceIndex}) has a
+ * 5-bit count, so adding or removing a piece is a single add or subtract and
+ * two boards have the same material exactly when their signatures are equal.
+ * That makes the signature a cheap key for picking endgame-specific handling.
+ */
+public final class Material {
+
+    private static final int BITS = 5;
+    private static final long FIELD = (1L << BITS) - 1;
+    // All six counts of one color
+    private static final long SIDE = (1L << (6 * BITS)) - 1;
+
+    private Material() {
+    }
+
+    /**
+     * @return the signature of a single piece, to add or subtract when it
+     * comes or goes
+     */
+    static long unit(int pieceIndex) {
+        return 1L << (pieceIndex * BITS);
+    }
+
+    /**
+     * Builds the signature of a king plus {@code pieces} for {@code color} and
+     * a bare king for the other color
+     */
+    public static long of(ChessGame.TeamColor color, ChessPiece.PieceType... pieces) {
+        ChessGame.TeamColor other = (color == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long signature = unit(Bitboards.pieceIndex(color, ChessPiece.PieceType.KING))
+                + unit(Bitboards.pieceIndex(other, ChessPiece.PieceType.KING));
+        for (ChessPiece.PieceType type : pieces) {
+            signature += unit(Bitboards.pieceIndex(color, type));
+        }
+        return signature;
+    }
+
+    public static int count(long signature, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return (int) ((signature >>> (Bitboards.pieceIndex(color, type) * BITS)) & FIELD);
+    }
+
+    /**
+     * @return the total number of pieces of one type, both colors together
+     */
+    public static int count(long signature, ChessPiece.PieceType type) {
+        return count(signature, ChessGame.TeamColor.WHITE, type) + count(signature, ChessGame.TeamColor.BLACK, type);
+    }
+
+    /**
+     * @return the signature with the colors swapped
+     */
+    public static long mirror(long signature) {
+        return ((signature & SIDE) << (6 * BITS)) | ((signature >>> (6 * BITS)) & SIDE);
+    }
+}
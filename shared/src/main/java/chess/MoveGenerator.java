@@ -0,0 +1,259 @@
+package chess;
+
+/**
+ * Generates every legal move for one side in a single pass.
+ * <p>
+ * Instead of trying each pseudo-legal move and testing for check afterwards,
+ * the generator first works out which enemy pieces give check and which of
+ * our pieces are pinned to the king. Non-king moves are then restricted to
+ * the check-evasion mask (capture the checker or block its ray) and, for
+ * pinned pieces, to the pin line, so everything it emits is already legal.
+ * Only king moves and en passant need an explicit attack test.
+ */
+final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+        ChessPiece.PieceType.QUEEN,
+        ChessPiece.PieceType.ROOK,
+        ChessPiece.PieceType.BISHOP,
+        ChessPiece.PieceType.KNIGHT
+    };
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds all legal moves for {@code us} to {@code moves} as {@link PackedMove}s
+     *
+     * @param castlingRights  castling rights mask (see ChessGame)
+     * @param enPassantSquare en passant target square, or -1
+     */
+    static void generate(ChessBoard board, ChessGame.TeamColor us, int castlingRights, int enPassantSquare,
+                         MoveList moves) {
+        generate(board, us, castlingRights, enPassantSquare, false, moves);
+    }
+
+    /**
+     * Adds only the legal captures (en passant included) and promotions
+     * for {@code us}, the moves a quiescence search looks at
+     *
+     * @param enPassantSquare en passant target square, or -1
+     */
+    static void generateCaptures(ChessBoard board, ChessGame.TeamColor us, int enPassantSquare, MoveList moves) {
+        generate(board, us, 0, enPassantSquare, true, moves);
+    }
+
+    private static void generate(ChessBoard board, ChessGame.TeamColor us, int castlingRights, int enPassantSquare,
+                                 boolean capturesOnly, MoveList moves) {
+        ChessGame.TeamColor them = (us == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long own = board.getBitboard(us);
+        long enemy = board.getBitboard(them);
+        long occupied = board.getOccupancy();
+
+        int king = board.getKingSquare(us);
+
+        // Squares any non-pawn move may land on, before check and pin restrictions
+        long landing = capturesOnly ? enemy : ~own;
+
+        long checkMask = ~0L;
+        long pinned = 0L;
+        if (king >= 0) {
+            long checkers = board.attackersTo(king, them, occupied);
+
+            // King steps, tested with the king lifted off the board so it
+            // cannot hide behind itself from a slider
+            long kingTargets = Bitboards.kingAttacks(king) & landing;
+            long withoutKing = occupied & ~Bitboards.bit(king);
+            while (kingTargets != 0) {
+                int to = Long.numberOfTrailingZeros(kingTargets);
+                kingTargets &= kingTargets - 1;
+                if (board.attackersTo(to, them, withoutKing) == 0) {
+                    moves.add(PackedMove.of(king, to, null, captureFlag(to, enemy)));
+                }
+            }
+
+            // In double check only the king can move
+            if (Long.bitCount(checkers) > 1) return;
+
+            if (checkers != 0) {
+                int checker = Long.numberOfTrailingZeros(checkers);
+                checkMask = checkers | Bitboards.between(king, checker);
+            } else if (!capturesOnly) {
+                addCastlingMoves(board, us, them, king, castlingRights, moves);
+            }
+
+            pinned = pinnedPieces(board, king, us, them, occupied);
+        }
+
+        long targets = landing & checkMask;
+
+        long knights = board.getBitboard(us, ChessPiece.PieceType.KNIGHT) & ~pinned;
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            addMoves(from, Bitboards.knightAttacks(from) & targets, enemy, moves);
+        }
+
+        long diagonals = board.getBitboard(us, ChessPiece.PieceType.BISHOP) | board.getBitboard(us, ChessPiece.PieceType.QUEEN);
+        while (diagonals != 0) {
+            int from = Long.numberOfTrailingZeros(diagonals);
+            diagonals &= diagonals - 1;
+            addMoves(from, Bitboards.bishopAttacks(from, occupied) & targets & pinRay(king, from, pinned), enemy, moves);
+        }
+
+        long straights = board.getBitboard(us, ChessPiece.PieceType.ROOK) | board.getBitboard(us, ChessPiece.PieceType.QUEEN);
+        while (straights != 0) {
+            int from = Long.numberOfTrailingZeros(straights);
+            straights &= straights - 1;
+            addMoves(from, Bitboards.rookAttacks(from, occupied) & targets & pinRay(king, from, pinned), enemy, moves);
+        }
+
+        addPawnMoves(board, us, them, king, pinned, checkMask, enPassantSquare, capturesOnly, moves);
+    }
+
+    private static void addPawnMoves(ChessBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them, int king,
+                                     long pinned, long checkMask, int enPassantSquare, boolean capturesOnly,
+                                     MoveList moves) {
+        boolean white = us == ChessGame.TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        long startRank = white ? Bitboards.RANK_1 << 8 : Bitboards.RANK_8 >>> 8;
+        long promotionRank = white ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        long occupied = board.getOccupancy();
+        long enemy = board.getBitboard(them);
+
+        long pawns = board.getBitboard(us, ChessPiece.PieceType.PAWN);
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long allowed = checkMask & pinRay(king, from, pinned);
+
+            // Pawns on the last rank (only possible on hand-built boards) cannot move
+            int oneAhead = from + forward;
+            if (oneAhead < 0 || oneAhead > 63) continue;
+
+            long targets = Bitboards.pawnAttacks(us, from) & enemy;
+            // Pushes count as captures-only moves when they promote
+            if ((occupied & Bitboards.bit(oneAhead)) == 0
+                    && (!capturesOnly || (promotionRank & Bitboards.bit(oneAhead)) != 0)) {
+                targets |= Bitboards.bit(oneAhead);
+                int twoAhead = oneAhead + forward;
+                if ((startRank & Bitboards.bit(from)) != 0 && (occupied & Bitboards.bit(twoAhead)) == 0) {
+                    targets |= Bitboards.bit(twoAhead);
+                }
+            }
+            targets &= allowed;
+
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                int flags = captureFlag(to, enemy) | ((Math.abs(to - from) == 16) ? PackedMove.DOUBLE_PUSH : 0);
+                if ((promotionRank & Bitboards.bit(to)) != 0) {
+                    for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                        moves.add(PackedMove.of(from, to, promotion, flags));
+                    }
+                } else {
+                    moves.add(PackedMove.of(from, to, null, flags));
+                }
+            }
+
+            if (enPassantSquare >= 0 && (Bitboards.pawnAttacks(us, from) & Bitboards.bit(enPassantSquare)) != 0
+                    && isLegalEnPassant(board, us, them, king, from, enPassantSquare, checkMask)) {
+                moves.add(PackedMove.of(from, enPassantSquare, null, PackedMove.CAPTURE | PackedMove.EN_PASSANT));
+            }
+        }
+    }
+
+    /**
+     * En passant removes two pawns from one rank at once, which can expose the
+     * king in ways the pin mask does not capture, so it is checked directly
+     * against the position after the capture
+     */
+    private static boolean isLegalEnPassant(ChessBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them,
+                                            int king, int from, int to, long checkMask) {
+        int captured = (from & ~7) | (to & 7);
+        ChessPiece victim = board.getPiece(captured);
+        if (victim == null || victim.getPieceType() != ChessPiece.PieceType.PAWN || victim.getTeamColor() != them) {
+            return false;
+        }
+        if ((checkMask & (Bitboards.bit(to) | Bitboards.bit(captured))) == 0) return false;
+        if (king < 0) return true;
+
+        long after = (board.getOccupancy() ^ Bitboards.bit(from) ^ Bitboards.bit(captured)) | Bitboards.bit(to);
+        long queens = board.getBitboard(them, ChessPiece.PieceType.QUEEN);
+        long rooks = board.getBitboard(them, ChessPiece.PieceType.ROOK) | queens;
+        long bishops = board.getBitboard(them, ChessPiece.PieceType.BISHOP) | queens;
+        return (Bitboards.rookAttacks(king, after) & rooks) == 0
+                && (Bitboards.bishopAttacks(king, after) & bishops) == 0;
+    }
+
+    private static void addCastlingMoves(ChessBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them, int king,
+                                         int castlingRights, MoveList moves) {
+        boolean white = us == ChessGame.TeamColor.WHITE;
+        int home = white ? Bitboards.square(1, 5) : Bitboards.square(8, 5);
+        if (king != home) return;
+
+        int kingside = white ? ChessGame.WHITE_KINGSIDE : ChessGame.BLACK_KINGSIDE;
+        int queenside = white ? ChessGame.WHITE_QUEENSIDE : ChessGame.BLACK_QUEENSIDE;
+        long rooks = board.getBitboard(us, ChessPiece.PieceType.ROOK);
+        long occupied = board.getOccupancy();
+
+        if ((castlingRights & kingside) != 0 && (rooks & Bitboards.bit(home + 3)) != 0
+                && (occupied & (Bitboards.bit(home + 1) | Bitboards.bit(home + 2))) == 0
+                && !board.isAttacked(home + 1, them)
+                && !board.isAttacked(home + 2, them)) {
+            moves.add(PackedMove.of(home, home + 2, null, PackedMove.CASTLE));
+        }
+
+        if ((castlingRights & queenside) != 0 && (rooks & Bitboards.bit(home - 4)) != 0
+                && (occupied & (Bitboards.bit(home - 1) | Bitboards.bit(home - 2) | Bitboards.bit(home - 3))) == 0
+                && !board.isAttacked(home - 1, them)
+                && !board.isAttacked(home - 2, them)) {
+            moves.add(PackedMove.of(home, home - 2, null, PackedMove.CASTLE));
+        }
+    }
+
+    /**
+     * Our pieces that are the only thing standing between the king and an
+     * enemy slider on the same line
+     */
+    private static long pinnedPieces(ChessBoard board, int king, ChessGame.TeamColor us, ChessGame.TeamColor them,
+                                     long occupied) {
+        long queens = board.getBitboard(them, ChessPiece.PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(king, 0L)
+                & (board.getBitboard(them, ChessPiece.PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(king, 0L)
+                & (board.getBitboard(them, ChessPiece.PieceType.BISHOP) | queens));
+
+        long pinned = 0L;
+        long own = board.getBitboard(us);
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboards.between(king, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * @return the line a pinned piece must stay on, or all squares if the
+     * piece is not pinned
+     */
+    private static long pinRay(int king, int square, long pinned) {
+        return (pinned & Bitboards.bit(square)) != 0 ? Bitboards.line(king, square) : ~0L;
+    }
+
+    private static void addMoves(int from, long targets, long enemy, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(PackedMove.of(from, to, null, captureFlag(to, enemy)));
+        }
+    }
+
+    private static int captureFlag(int to, long enemy) {
+        return (enemy & Bitboards.bit(to)) != 0 ? PackedMove.CAPTURE : 0;
+    }
+}
@@ -0,0 +1,176 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sorts legal moves so that an alpha-beta search tries the likeliest best
+ * move first and gets its cutoffs early.
+ * <p>
+ * Order: the hash move (the best move remembered for the position), captures
+ * and promotions by most valuable victim / least valuable attacker, the two
+ * killer moves for the ply (quiet moves that recently caused a cutoff at the
+ * same depth in a sibling position), the counter-move to the opponent's last
+ * move, then the remaining quiet moves by history score.
+ * <p>
+ * Killers, counter-moves and history are learned from
+ * {@link #recordCutoff}, so one orderer belongs with one search thread. All
+ * of it lives in primitive arrays indexed by ply, color and from/to square.
+ */
+public class MoveOrderer {
+
+    public static final int MAX_PLY = 128;
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int COUNTER_MOVE_SCORE = 1 << 26;
+    // History scores are halved whenever one passes this, keeping them below the counter-move
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] VICTIM_VALUE = {0, 9, 3, 3, 5, 1};
+    private static final int[] ATTACKER_RANK = {6, 5, 3, 2, 4, 1};
+
+    private final int[] killers = new int[MAX_PLY * 2];
+    // Indexed by the previous move's from * 64 + to
+    private final int[] counterMoves = new int[64 * 64];
+    // Indexed by color * 4096 + from * 64 + to
+    private final int[] history = new int[2 * 64 * 64];
+    private final int[][] scores = new int[MAX_PLY][];
+
+    /**
+     * Sorts a list of legal moves in place, best first
+     *
+     * @param game         the position the moves belong to
+     * @param moves        legal moves for the side to move
+     * @param ply          distance from the root of the search, for killer moves
+     * @param hashMove     move to try first, or {@link PackedMove#NONE}
+     * @param previousMove the opponent's move that led here, or {@link PackedMove#NONE}
+     */
+    public void order(ChessGame game, MoveList moves, int ply, int hashMove, int previousMove) {
+        int size = moves.size();
+        int[] keys = scratch(ply, size);
+        ChessBoard board = game.getBoard();
+        int color = game.getTeamTurn().ordinal();
+        int hash = PackedMove.withoutFlags(hashMove);
+        int killer1 = (ply < MAX_PLY) ? killers[ply * 2] : PackedMove.NONE;
+        int killer2 = (ply < MAX_PLY) ? killers[ply * 2 + 1] : PackedMove.NONE;
+        int counter = (previousMove != PackedMove.NONE) ? counterMoves[fromTo(previousMove)] : PackedMove.NONE;
+
+        for (int i = 0; i < size; i++) {
+            int move = moves.get(i);
+            int plain = PackedMove.withoutFlags(move);
+            if (plain == hash) {
+                keys[i] = HASH_MOVE_SCORE;
+            } else if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+                keys[i] = CAPTURE_SCORE + captureScore(board, move);
+            } else if (plain == killer1) {
+                keys[i] = KILLER_SCORE + 1;
+            } else if (plain == killer2) {
+                keys[i] = KILLER_SCORE;
+            } else if (plain == counter) {
+                keys[i] = COUNTER_MOVE_SCORE;
+            } else {
+                keys[i] = history[color * 4096 + fromTo(move)];
+            }
+        }
+
+        // Insertion sort, descending; move lists are short and often nearly sorted
+        for (int i = 1; i < size; i++) {
+            int key = keys[i];
+            int move = moves.get(i);
+            int j = i - 1;
+            while (j >= 0 && keys[j] < key) {
+                keys[j + 1] = keys[j];
+                moves.set(j + 1, moves.get(j));
+                j--;
+            }
+            keys[j + 1] = key;
+            moves.set(j + 1, move);
+        }
+    }
+
+    /**
+     * Orders {@link ChessMove}s, for example from {@link ChessGame#legalMoves(ChessGame.TeamColor)},
+     * using captures and whatever history has been recorded
+     *
+     * @return the moves, best first
+     */
+    public List<ChessMove> order(ChessGame game, Collection<ChessMove> moves) {
+        MoveList packed = new MoveList(moves.size());
+        for (ChessMove move : moves) {
+            packed.add(PackedMove.of(move, game.getBoard()));
+        }
+        order(game, packed, MAX_PLY, PackedMove.NONE, PackedMove.NONE);
+        return packed.toChessMoves();
+    }
+
+    /**
+     * Records that a move caused a beta cutoff. Only quiet moves are
+     * learned; captures are already ordered well by MVV-LVA.
+     *
+     * @param color        the side that played the move
+     * @param move         the move that refuted the position
+     * @param ply          distance from the root of the search
+     * @param previousMove the opponent's move that led to the position, or {@link PackedMove#NONE}
+     * @param depth        remaining depth at the cutoff; deeper cutoffs count for more
+     */
+    public void recordCutoff(ChessGame.TeamColor color, int move, int ply, int previousMove, int depth) {
+        if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) return;
+        int plain = PackedMove.withoutFlags(move);
+
+        if (ply < MAX_PLY && killers[ply * 2] != plain) {
+            killers[ply * 2 + 1] = killers[ply * 2];
+            killers[ply * 2] = plain;
+        }
+        if (previousMove != PackedMove.NONE) {
+            counterMoves[fromTo(previousMove)] = plain;
+        }
+
+        int index = color.ordinal() * 4096 + fromTo(move);
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Forgets everything learned, for example before searching an unrelated position
+     */
+    public void clear() {
+        Arrays.fill(killers, PackedMove.NONE);
+        Arrays.fill(counterMoves, PackedMove.NONE);
+        Arrays.fill(history, 0);
+    }
+
+    private static int captureScore(ChessBoard board, int move) {
+        int score = 0;
+        if (PackedMove.isCapture(move)) {
+            ChessPiece victim = board.getPiece(PackedMove.to(move));
+            // En passant lands on an empty square; the victim is a pawn
+            int victimType = (victim == null) ? ChessPiece.PieceType.PAWN.ordinal() : victim.getPieceType().ordinal();
+            int attackerType = board.getPiece(PackedMove.from(move)).getPieceType().ordinal();
+            score += VICTIM_VALUE[victimType] * 8 - ATTACKER_RANK[attackerType];
+        }
+        if (PackedMove.isPromotion(move)) {
+            score += VICTIM_VALUE[PackedMove.promotion(move).ordinal()] * 8;
+        }
+        return score;
+    }
+
+    private static int fromTo(int move) {
+        return move & 0xFFF;
+    }
+
+    private int[] scratch(int ply, int size) {
+        int index = Math.min(ply, MAX_PLY - 1);
+        if (scores[index] == null || scores[index].length < size) {
+            scores[index] = new int[Math.max(size, 256)];
+        }
+        return scores[index];
+    }
+}
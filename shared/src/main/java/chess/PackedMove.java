@@ -0,0 +1,113 @@
+package chess;
+
+/**
+ * A move packed into a single {@code int}, for code that handles moves in
+ * bulk and should not allocate a {@link ChessMove} per move.
+ * <p>
+ * Layout, low bits first: from square (6 bits), to square (6 bits),
+ * promotion piece (3 bits, 0 for none, otherwise {@code PieceType.ordinal() + 1}),
+ * then the capture, en passant, castle and double pawn push flags. Squares
+ * are indexed as in {@link Bitboards}. Zero is never a valid move, so it can
+ * stand for "no move".
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+    public static final int DOUBLE_PUSH = 1 << 18;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    /**
+     * @param promotion promotion piece, or null
+     * @param flags     any of the flag constants OR-ed together
+     */
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = (promotion == null) ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << 12) | flags;
+    }
+
+    /**
+     * Packs a move, reading the board it will be played on to fill in the
+     * capture, en passant, castle and double push flags
+     */
+    public static int of(ChessMove move, ChessBoard board) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        int from = Bitboards.square(start.getRow(), start.getColumn());
+        int to = Bitboards.square(end.getRow(), end.getColumn());
+
+        int flags = 0;
+        ChessPiece piece = board.getPiece(from);
+        if (board.getPiece(to) != null) {
+            flags |= CAPTURE;
+        }
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (board.getPiece(to) == null && start.getColumn() != end.getColumn()) {
+                flags |= CAPTURE | EN_PASSANT;
+            } else if (Math.abs(to - from) == 16) {
+                flags |= DOUBLE_PUSH;
+            }
+        } else if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            flags |= CASTLE;
+        }
+        return of(from, to, move.getPromotionPiece(), flags);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int bits = (move >>> 12) & 7;
+        return (bits == 0) ? null : TYPES[bits - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return ((move >>> 12) & 7) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * @return the move without its flags: from, to and promotion only, which
+     * is enough to identify it within a position
+     */
+    public static int withoutFlags(int move) {
+        return move & 0x7FFF;
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.toPosition(from(move)), Bitboards.toPosition(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, e.g. "e2e4" or "e7e8q"
+     */
+    public static String toString(int move) {
+        return toChessMove(move).toString();
+    }
+}
@@ -0,0 +1,160 @@
+package chess.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results keyed by
+ * {@link chess.ChessGame#zobristKey()}, shared by any number of threads.
+ * <p>
+ * Entries live in one flat {@code long[]} as pairs of {@code key ^ data} and
+ * {@code data}. Threads probe and store without locking: an entry torn by a
+ * concurrent write no longer XORs back to its key and reads as a miss.
+ * <p>
+ * Entries are grouped into buckets of {@value #BUCKET_SIZE}. A store replaces
+ * the entry for the same position if there is one, otherwise the entry worth
+ * least, preferring shallow entries and entries left over from earlier
+ * searches (see {@link #newSearch()}).
+ * <p>
+ * A probe hit is a packed {@code long}; read it with {@link #move},
+ * {@link #score}, {@link #depth} and {@link #bound}.
+ */
+public class TranspositionTable {
+
+    public static final long MISS = 0L;
+
+    /** The score is exact */
+    public static final int EXACT = 1;
+    /** The score is a lower bound: the search failed high */
+    public static final int LOWER_BOUND = 2;
+    /** The score is an upper bound: no move reached alpha */
+    public static final int UPPER_BOUND = 3;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int ENTRY_LONGS = 2;
+    private static final int AGE_MASK = 63;
+
+    // Data layout, low bits first: move (16), score (16), depth (8), bound (2), age (6)
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int AGE_SHIFT = 42;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    /**
+     * @param megabytes approximate memory to use; rounded down to a power of
+     *                  two number of buckets
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = Math.max(1L, (megabytes * 1024L * 1024L) / (BUCKET_SIZE * ENTRY_LONGS * Long.BYTES));
+        int size = Integer.highestOneBit((int) Math.min(buckets, 1 << 26));
+        table = new long[size * BUCKET_SIZE * ENTRY_LONGS];
+        bucketMask = size - 1;
+    }
+
+    /**
+     * @return the entry stored for the position, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int base = bucketIndex(key);
+        for (int i = base; i < base + BUCKET_SIZE * ENTRY_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != MISS) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * @param move  best or refuting {@link chess.PackedMove}, or {@link chess.PackedMove#NONE}
+     * @param score score of the position, within the range of a {@code short}
+     * @param depth remaining depth the score was searched to, 0 to 255
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int currentAge = age;
+        int base = bucketIndex(key);
+        int replace = base;
+        int replaceWorth = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_SIZE * ENTRY_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key) {
+                // Keep a deeper result for this position unless the new one is exact,
+                // but take over its move if the new search did not find one
+                if (bound != EXACT && depth < depth(data) && age(data) == currentAge) return;
+                if (move == 0) move = move(data);
+                replace = i;
+                break;
+            }
+            // Two plies of depth are worth one search of age
+            int worth = depth(data) - 2 * ((currentAge - age(data)) & AGE_MASK);
+            if (data == MISS) worth = Integer.MIN_VALUE;
+            if (worth < replaceWorth) {
+                replaceWorth = worth;
+                replace = i;
+            }
+        }
+
+        long data = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << SCORE_SHIFT)
+                | ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentAge << AGE_SHIFT);
+        table[replace + 1] = data;
+        table[replace] = key ^ data;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches are
+     * replaced first
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /**
+     * @return permille of sampled entries written during the current search
+     */
+    public int hashfull() {
+        int sampled = Math.min(1000, table.length / ENTRY_LONGS);
+        int used = 0;
+        for (int i = 0; i < sampled; i++) {
+            long data = table[i * ENTRY_LONGS + 1];
+            if (data != MISS && age(data) == age) used++;
+        }
+        return used * 1000 / sampled;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    private int bucketIndex(long key) {
+        // High bits pick the bucket so the low bits of the key stay independent
+        return ((int) (key >>> 32) & bucketMask) * BUCKET_SIZE * ENTRY_LONGS;
+    }
+}
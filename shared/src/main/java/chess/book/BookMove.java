@@ -0,0 +1,12 @@
+package chess.book;
+
+import chess.ChessMove;
+
+/**
+ * A move found in an opening book
+ *
+ * @param move   the move, already checked to be legal in the probed position
+ * @param weight relative weight; higher means the move was played or scored better
+ */
+public record BookMove(ChessMove move, int weight) {
+}
@@ -0,0 +1,173 @@
+package chess.book;
+
+import chess.Bitboards;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reads a Polyglot ({@code .bin}) opening book.
+ * <p>
+ * A book is a flat file of 16-byte big-endian entries sorted by position key:
+ * key (8 bytes), move (2), weight (2) and a learn field (4) that is ignored.
+ * The file is memory-mapped and binary-searched in place, so a lookup reads
+ * only the handful of entries it touches and allocates nothing but the result.
+ * <p>
+ * Instances are immutable once opened and safe to share between threads.
+ */
+public class PolyglotBook {
+
+    private static final int ENTRY_SIZE = 16;
+
+    // Polyglot promotion piece codes 1 to 4
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+        null,
+        ChessPiece.PieceType.KNIGHT,
+        ChessPiece.PieceType.BISHOP,
+        ChessPiece.PieceType.ROOK,
+        ChessPiece.PieceType.QUEEN
+    };
+
+    private final ByteBuffer entries;
+    private final long count;
+    private final PolyglotKeys keys;
+
+    /**
+     * Opens a book hashed with the standard Polyglot keys
+     */
+    public PolyglotBook(Path file) throws IOException {
+        this(file, PolyglotKeys.standard());
+    }
+
+    /**
+     * @param keys hashing to look positions up with; must match the one the book was built with
+     */
+    public PolyglotBook(Path file, PolyglotKeys keys) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_SIZE != 0) {
+                throw new IOException("Not a Polyglot book, size " + size + " is not a multiple of " + ENTRY_SIZE);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Book too large to map: " + size + " bytes");
+            }
+            // The mapping stays valid after the channel is closed, until it is garbage collected
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            this.entries = mapped.asReadOnlyBuffer();
+            this.count = size / ENTRY_SIZE;
+        }
+        this.keys = keys;
+    }
+
+    /**
+     * @return the book's legal moves for the game's current position, highest
+     * weight first; empty if the position is not in the book
+     */
+    public List<BookMove> moves(ChessGame game) {
+        long key = keys.key(game);
+        List<BookMove> result = new ArrayList<>();
+        MoveList legal = null;
+        for (long i = firstEntry(key); i < count && keyAt(i) == key; i++) {
+            int offset = (int) (i * ENTRY_SIZE);
+            int move = Short.toUnsignedInt(entries.getShort(offset + 8));
+            int weight = Short.toUnsignedInt(entries.getShort(offset + 10));
+            if (legal == null) {
+                legal = new MoveList();
+                game.legalMoves(game.getTeamTurn(), legal);
+            }
+            // Check legality, which also guards against a key collision
+            ChessMove decoded = decode(game, move);
+            if (legal.contains(PackedMove.of(decoded, game.getBoard()))) {
+                result.add(new BookMove(decoded, weight));
+            }
+        }
+        result.sort((a, b) -> Integer.compare(b.weight(), a.weight()));
+        return result;
+    }
+
+    /**
+     * Picks a book move at random, in proportion to the moves' weights
+     *
+     * @return the chosen move, or null if the position is not in the book
+     */
+    public ChessMove pickMove(ChessGame game, Random random) {
+        List<BookMove> moves = moves(game);
+        long total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (moves.isEmpty()) return null;
+        // All-zero weights still mean "in the book"; treat them as equal
+        if (total == 0) return moves.get(random.nextInt(moves.size())).move();
+
+        long pick = (long) (random.nextDouble() * total);
+        for (BookMove move : moves) {
+            pick -= move.weight();
+            if (pick < 0) return move.move();
+        }
+        return moves.get(moves.size() - 1).move();
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * @return index of the first entry with a key of at least {@code key},
+     * comparing keys as unsigned
+     */
+    private long firstEntry(long key) {
+        long low = 0;
+        long high = count;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(long index) {
+        return entries.getLong((int) (index * ENTRY_SIZE));
+    }
+
+    /**
+     * Polyglot moves pack to file, to row, from file, from row and promotion
+     * into 3 bits each. Castling is written as the king taking its own rook.
+     */
+    private static ChessMove decode(ChessGame game, int move) {
+        int toCol = (move & 7) + 1;
+        int toRow = ((move >> 3) & 7) + 1;
+        int fromCol = ((move >> 6) & 7) + 1;
+        int fromRow = ((move >> 9) & 7) + 1;
+        int promotionCode = (move >> 12) & 7;
+        ChessPiece.PieceType promotion = (promotionCode < PROMOTIONS.length) ? PROMOTIONS[promotionCode] : null;
+
+        ChessPiece piece = game.getBoard().getPiece(Bitboards.square(fromRow, fromCol));
+        ChessPiece target = game.getBoard().getPiece(Bitboards.square(toRow, toCol));
+        if (piece != null && target != null && piece.getPieceType() == ChessPiece.PieceType.KING
+                && target.getPieceType() == ChessPiece.PieceType.ROOK && target.getTeamColor() == piece.getTeamColor()) {
+            toCol = (toCol > fromCol) ? 7 : 3;
+        }
+        return new ChessMove(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), promotion);
+    }
+}
@@ -0,0 +1,130 @@
+package chess.book;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Polyglot position hashing, the key Polyglot opening books are sorted by.
+ * <p>
+ * It works like {@link chess.Zobrist}, but with the fixed "Random64" table
+ * from the Polyglot book format specification, so keys match books built by
+ * other tools. The table has 781 entries: 768 for piece kind and square,
+ * 4 for castling rights, 8 for the en passant file and 1 for white to move.
+ */
+public final class PolyglotKeys {
+
+    public static final int TABLE_SIZE = 781;
+
+    /** Classpath resource holding the standard table, one hex value per line */
+    public static final String STANDARD_TABLE = "/chess/book/polyglot-random64.txt";
+
+    private static final int CASTLING_OFFSET = 768;
+    private static final int EN_PASSANT_OFFSET = 772;
+    private static final int TURN_OFFSET = 780;
+
+    // Polyglot's piece kind order is pawn, knight, bishop, rook, queen, king,
+    // indexed here by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] KIND = {5, 4, 2, 1, 3, 0};
+
+    private static PolyglotKeys standard;
+
+    private final long[] random64;
+
+    /**
+     * @param random64 the {@value #TABLE_SIZE} random values, in Polyglot order
+     */
+    public PolyglotKeys(long[] random64) {
+        if (random64.length != TABLE_SIZE) {
+            throw new IllegalArgumentException("Expected " + TABLE_SIZE + " values, got " + random64.length);
+        }
+        this.random64 = random64.clone();
+    }
+
+    /**
+     * @return keys using the standard Polyglot table, loaded from {@value #STANDARD_TABLE}
+     * @throws IllegalStateException if the table is not on the classpath
+     */
+    public static synchronized PolyglotKeys standard() {
+        if (standard == null) {
+            try (InputStream in = PolyglotKeys.class.getResourceAsStream(STANDARD_TABLE)) {
+                if (in == null) {
+                    throw new IllegalStateException("Polyglot Random64 table not found at " + STANDARD_TABLE);
+                }
+                standard = new PolyglotKeys(readTable(in));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return standard;
+    }
+
+    /**
+     * @return the Polyglot key of the game's current position
+     */
+    public long key(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        long key = 0;
+        long occupied = board.getOccupancy();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            ChessPiece piece = board.getPiece(square);
+            int kind = 2 * KIND[piece.getPieceType().ordinal()]
+                    + (piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 1 : 0);
+            key ^= random64[64 * kind + square];
+        }
+
+        if (game.hasCastlingRight(ChessGame.TeamColor.WHITE, true)) key ^= random64[CASTLING_OFFSET];
+        if (game.hasCastlingRight(ChessGame.TeamColor.WHITE, false)) key ^= random64[CASTLING_OFFSET + 1];
+        if (game.hasCastlingRight(ChessGame.TeamColor.BLACK, true)) key ^= random64[CASTLING_OFFSET + 2];
+        if (game.hasCastlingRight(ChessGame.TeamColor.BLACK, false)) key ^= random64[CASTLING_OFFSET + 3];
+
+        // The en passant file only counts if a pawn of the side to move could capture
+        ChessPosition enPassant = game.getEnPassantSquare();
+        if (enPassant != null) {
+            ChessGame.TeamColor us = game.getTeamTurn();
+            ChessGame.TeamColor them = (us == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            int square = Bitboards.square(enPassant.getRow(), enPassant.getColumn());
+            if ((Bitboards.pawnAttacks(them, square) & board.getBitboard(us, ChessPiece.PieceType.PAWN)) != 0) {
+                key ^= random64[EN_PASSANT_OFFSET + enPassant.getColumn() - 1];
+            }
+        }
+
+        if (game.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+            key ^= random64[TURN_OFFSET];
+        }
+        return key;
+    }
+
+    private static long[] readTable(InputStream in) throws IOException {
+        long[] values = new long[TABLE_SIZE];
+        int count = 0;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            if (count == TABLE_SIZE) {
+                throw new IllegalStateException("Polyglot Random64 table has more than " + TABLE_SIZE + " values");
+            }
+            if (line.startsWith("0x") || line.startsWith("0X")) {
+                line = line.substring(2);
+            }
+            values[count++] = Long.parseUnsignedLong(line, 16);
+        }
+        if (count != TABLE_SIZE) {
+            throw new IllegalStateException("Polyglot Random64 table has " + count + " values, expected " + TABLE_SIZE);
+        }
+        return values;
+    }
+}
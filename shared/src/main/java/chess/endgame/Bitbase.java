@@ -0,0 +1,66 @@
+package chess.endgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Win/draw bitbase for one {@link Endgame}, one bit per position.
+ * <p>
+ * The data is two bitsets of {@link Endgame#positions()} bits each: first
+ * "white wins" for positions with white to move, then "white wins" for black
+ * to move, white always being the stronger side. Files hold exactly these
+ * bytes and are memory-mapped, so a probe is one index calculation and one
+ * byte read.
+ */
+public class Bitbase {
+
+    private final Endgame endgame;
+    private final ByteBuffer bits;
+
+    Bitbase(Endgame endgame, ByteBuffer bits) {
+        if (bits.capacity() != bytes(endgame)) {
+            throw new IllegalArgumentException("Expected " + bytes(endgame) + " bytes of " + endgame
+                    + " data, got " + bits.capacity());
+        }
+        this.endgame = endgame;
+        this.bits = bits;
+    }
+
+    /**
+     * Maps a bitbase file written by {@link BitbaseGenerator}
+     */
+    public static Bitbase map(Endgame endgame, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new Bitbase(endgame, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Endgame endgame() {
+        return endgame;
+    }
+
+    /**
+     * @param whiteToMove  side to move, white being the stronger side
+     * @param index        position index from {@link Endgame#index}
+     * @return whether white wins with perfect play; false for positions that cannot occur
+     */
+    public boolean whiteWins(boolean whiteToMove, int index) {
+        long bit = (whiteToMove ? 0L : endgame.positions()) + index;
+        return (bits.get((int) (bit >>> 3)) & (1 << (bit & 7))) != 0;
+    }
+
+    /**
+     * @return a read-only view of the raw bits, as stored in a file
+     */
+    ByteBuffer data() {
+        return bits.asReadOnlyBuffer().position(0);
+    }
+
+    static int bytes(Endgame endgame) {
+        return endgame.positions() / 4;
+    }
+}
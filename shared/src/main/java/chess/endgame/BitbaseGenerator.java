@@ -0,0 +1,323 @@
+package chess.endgame;
+
+import chess.Bitboards;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds {@link Bitbase}s by retrograde analysis.
+ * <p>
+ * Every position starts out undecided. Each round marks black-to-move
+ * positions as lost when black is mated or every black move reaches a
+ * white-to-move position already won, then marks white-to-move positions as
+ * won when some white move reaches a lost one. Rounds repeat until nothing
+ * changes; whatever is still undecided is a draw. Black capturing a piece
+ * always draws, since a king and one minor piece (or nothing) cannot win.
+ * Pawn promotions look up the KQK and KRK bitbases, so those are built first.
+ * <p>
+ * Each round is split over a ForkJoinPool into tasks of up to 16384
+ * positions. Split points stay multiples of 64, so no two tasks write to the
+ * same word of a bitset.
+ * <p>
+ * The generator owns its thread pool; close it when done.
+ * <p>
+ * Usage: {@code BitbaseGenerator <output directory> [endgame...] [--threads <n>]}
+ */
+public class BitbaseGenerator implements AutoCloseable {
+
+    // Positions per task when splitting a round
+    private static final int BLOCK = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private final Map<Endgame, Bitbase> built = new EnumMap<>(Endgame.class);
+
+    /**
+     * @param threads number of threads to analyse with
+     */
+    public BitbaseGenerator(int threads) {
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    /**
+     * Generates a bitbase in memory, first generating any it depends on
+     */
+    public Bitbase generate(Endgame endgame) {
+        Bitbase existing = built.get(endgame);
+        if (existing != null) return existing;
+        if (endgame == Endgame.KPK) {
+            generate(Endgame.KQK);
+            generate(Endgame.KRK);
+        }
+
+        Analysis analysis = new Analysis(endgame);
+        while (true) {
+            long changed = pool.invoke(analysis.new Round(false, 0, endgame.positions()));
+            changed += pool.invoke(analysis.new Round(true, 0, endgame.positions()));
+            if (changed == 0) break;
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(Bitbase.bytes(endgame)).order(ByteOrder.LITTLE_ENDIAN);
+        for (long word : analysis.whiteToMoveWins) bytes.putLong(word);
+        for (long word : analysis.blackToMoveLosses) bytes.putLong(word);
+        Bitbase bitbase = new Bitbase(endgame, bytes.flip());
+        built.put(endgame, bitbase);
+        return bitbase;
+    }
+
+    /**
+     * Generates a bitbase and writes it to {@code directory/}{@link Endgame#fileName()}
+     */
+    public void write(Endgame endgame, Path directory) throws IOException {
+        Bitbase bitbase = generate(endgame);
+        ByteBuffer bytes = bitbase.data();
+        byte[] out = new byte[bytes.remaining()];
+        bytes.get(out);
+        Files.createDirectories(directory);
+        Files.write(directory.resolve(endgame.fileName()), out);
+    }
+
+    /**
+     * Shuts down the thread pool. Bitbases already generated stay usable.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Working state for one endgame: a "decided" bitset per side to move,
+     * plus the squares of the extra pieces decoded from an index
+     */
+    private class Analysis {
+
+        private final Endgame endgame;
+        private final ChessPiece.PieceType[] types;
+        private final long[] whiteToMoveWins;
+        private final long[] blackToMoveLosses;
+
+        Analysis(Endgame endgame) {
+            this.endgame = endgame;
+            this.types = endgame.pieces().toArray(new ChessPiece.PieceType[0]);
+            this.whiteToMoveWins = new long[endgame.positions() / 64];
+            this.blackToMoveLosses = new long[endgame.positions() / 64];
+        }
+
+        class Round extends RecursiveTask<Long> {
+
+            private static final long serialVersionUID = 1L;
+
+            private final boolean whiteToMove;
+            private final int from;
+            private final int to;
+
+            Round(boolean whiteToMove, int from, int to) {
+                this.whiteToMove = whiteToMove;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected Long compute() {
+                if (to - from > BLOCK) {
+                    // Keep both halves on whole bitset words
+                    int mid = ((from + to) >>> 1) & ~63;
+                    Round left = new Round(whiteToMove, from, mid);
+                    left.fork();
+                    long right = new Round(whiteToMove, mid, to).compute();
+                    return left.join() + right;
+                }
+
+                long[] decided = whiteToMove ? whiteToMoveWins : blackToMoveLosses;
+                int[] squares = new int[types.length];
+                long changed = 0;
+                for (int index = from; index < to; index++) {
+                    if ((decided[index >>> 6] & (1L << index)) != 0) continue;
+                    int blackKing = decode(index, squares);
+                    int whiteKing = (index >>> (6 * (types.length + 1))) & 63;
+                    boolean result = whiteToMove ? whiteWins(whiteKing, blackKing, squares)
+                            : blackLoses(whiteKing, blackKing, squares);
+                    if (result) {
+                        decided[index >>> 6] |= 1L << index;
+                        changed++;
+                    }
+                }
+                return changed;
+            }
+        }
+
+        /**
+         * Fills in the extra pieces' squares
+         *
+         * @return the black king's square
+         */
+        private int decode(int index, int[] squares) {
+            for (int i = squares.length - 1; i >= 0; i--) {
+                squares[i] = index & 63;
+                index >>>= 6;
+            }
+            return index & 63;
+        }
+
+        /**
+         * @return the occupancy, or 0 if the squares do not form a possible position
+         */
+        private long occupancy(int whiteKing, int blackKing, int[] squares) {
+            if ((Bitboards.kingAttacks(whiteKing) & Bitboards.bit(blackKing)) != 0 || whiteKing == blackKing) return 0;
+            long occupied = Bitboards.bit(whiteKing) | Bitboards.bit(blackKing);
+            for (int i = 0; i < squares.length; i++) {
+                long bit = Bitboards.bit(squares[i]);
+                if ((occupied & bit) != 0) return 0;
+                if (types[i] == ChessPiece.PieceType.PAWN && (bit & (Bitboards.RANK_1 | Bitboards.RANK_8)) != 0) return 0;
+                occupied |= bit;
+            }
+            return occupied;
+        }
+
+        /**
+         * @return squares attacked by the extra pieces, except the one at
+         * {@code skip} (-1 for none), given the occupancy
+         */
+        private long pieceAttacks(int[] squares, int skip, long occupied) {
+            long attacks = 0;
+            for (int i = 0; i < squares.length; i++) {
+                if (i != skip) {
+                    attacks |= attacks(types[i], squares[i], occupied);
+                }
+            }
+            return attacks;
+        }
+
+        private boolean whiteWins(int whiteKing, int blackKing, int[] squares) {
+            long occupied = occupancy(whiteKing, blackKing, squares);
+            if (occupied == 0) return false;
+            // Black in check with white to move cannot happen
+            if ((pieceAttacks(squares, -1, occupied) & Bitboards.bit(blackKing)) != 0) return false;
+
+            long white = occupied & ~Bitboards.bit(blackKing);
+            long kingTargets = Bitboards.kingAttacks(whiteKing) & ~white & ~Bitboards.kingAttacks(blackKing);
+            while (kingTargets != 0) {
+                int target = Long.numberOfTrailingZeros(kingTargets);
+                kingTargets &= kingTargets - 1;
+                if (lost(target, blackKing, squares)) return true;
+            }
+
+            for (int i = 0; i < squares.length; i++) {
+                int from = squares[i];
+                long targets = (types[i] == ChessPiece.PieceType.PAWN)
+                        ? pawnPushes(from, occupied)
+                        : attacks(types[i], from, occupied) & ~occupied;
+                while (targets != 0) {
+                    int target = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    if (types[i] == ChessPiece.PieceType.PAWN && target >= 56) {
+                        if (promotionWins(whiteKing, blackKing, target)) return true;
+                        continue;
+                    }
+                    squares[i] = target;
+                    boolean lost = lost(whiteKing, blackKing, squares);
+                    squares[i] = from;
+                    if (lost) return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean blackLoses(int whiteKing, int blackKing, int[] squares) {
+            long occupied = occupancy(whiteKing, blackKing, squares);
+            if (occupied == 0) return false;
+
+            // Sliders see through the king's own square once it steps away
+            long withoutKing = occupied & ~Bitboards.bit(blackKing);
+            long guarded = Bitboards.kingAttacks(whiteKing) | pieceAttacks(squares, -1, withoutKing);
+            long targets = Bitboards.kingAttacks(blackKing) & ~guarded;
+            boolean hasMove = false;
+            while (targets != 0) {
+                int target = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                hasMove = true;
+                // An undefended piece on the square is captured, which draws
+                if ((occupied & Bitboards.bit(target)) != 0) return false;
+                if (!whiteToMoveWin(whiteKing, target, squares)) return false;
+            }
+            if (hasMove) return true;
+            // No moves: mate if in check, otherwise stalemate
+            return (pieceAttacks(squares, -1, occupied) & Bitboards.bit(blackKing)) != 0;
+        }
+
+        private boolean promotionWins(int whiteKing, int blackKing, int square) {
+            // The new piece may hang; black taking it is a draw, which the promoted bitbase knows
+            for (Endgame promoted : new Endgame[]{Endgame.KQK, Endgame.KRK}) {
+                if (built.get(promoted).whiteWins(false, promoted.index(whiteKing, blackKing, square))) return true;
+            }
+            return false;
+        }
+
+        private boolean lost(int whiteKing, int blackKing, int[] squares) {
+            int index = endgame.index(whiteKing, blackKing, squares);
+            return (blackToMoveLosses[index >>> 6] & (1L << index)) != 0;
+        }
+
+        private boolean whiteToMoveWin(int whiteKing, int blackKing, int[] squares) {
+            int index = endgame.index(whiteKing, blackKing, squares);
+            return (whiteToMoveWins[index >>> 6] & (1L << index)) != 0;
+        }
+    }
+
+    private static long attacks(ChessPiece.PieceType type, int square, long occupied) {
+        return switch (type) {
+            case QUEEN -> Bitboards.queenAttacks(square, occupied);
+            case ROOK -> Bitboards.rookAttacks(square, occupied);
+            case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+            case KNIGHT -> Bitboards.knightAttacks(square);
+            case PAWN -> Bitboards.pawnAttacks(ChessGame.TeamColor.WHITE, square);
+            case KING -> Bitboards.kingAttacks(square);
+        };
+    }
+
+    private static long pawnPushes(int square, long occupied) {
+        long one = Bitboards.bit(square + 8) & ~occupied;
+        long two = (square < 16 && one != 0) ? Bitboards.bit(square + 16) & ~occupied : 0;
+        return one | two;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: BitbaseGenerator <output directory> [kqk|krk|kpk|kbnk ...] [--threads <n>]");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Endgame> endgames = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                endgames.add(Endgame.valueOf(args[i].toUpperCase()));
+            }
+        }
+        if (endgames.isEmpty()) {
+            endgames = List.of(Endgame.values());
+        }
+
+        try (BitbaseGenerator generator = new BitbaseGenerator(threads)) {
+            for (Endgame endgame : endgames) {
+                long start = System.nanoTime();
+                generator.write(endgame, directory);
+                System.out.printf("%-5s %s  %.1f s%n", endgame, directory.resolve(endgame.fileName()),
+                        (System.nanoTime() - start) / 1e9);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package chess.endgame;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Material;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The bitbases available for probing, looked up by the board's material
+ * signature, so positions outside every endgame are turned away in O(1)
+ */
+public class Bitbases {
+
+    private final Map<Endgame, Bitbase> bitbases = new EnumMap<>(Endgame.class);
+
+    public Bitbases(Collection<Bitbase> bitbases) {
+        for (Bitbase bitbase : bitbases) {
+            this.bitbases.put(bitbase.endgame(), bitbase);
+        }
+    }
+
+    /**
+     * Maps every bitbase file found in a directory; missing endgames are skipped
+     */
+    public static Bitbases load(Path directory) throws IOException {
+        List<Bitbase> found = new ArrayList<>();
+        for (Endgame endgame : Endgame.values()) {
+            Path file = directory.resolve(endgame.fileName());
+            if (Files.isRegularFile(file)) {
+                found.add(Bitbase.map(endgame, file));
+            }
+        }
+        return new Bitbases(found);
+    }
+
+    /**
+     * @return the outcome with perfect play for the side to move, or null if
+     * the position is not covered by a loaded bitbase
+     */
+    public Wdl probe(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        // Bitbases are indexed with the stronger side as white; flip the board if it is black
+        long signature = board.getMaterialSignature();
+        ChessGame.TeamColor strong = ChessGame.TeamColor.WHITE;
+        Endgame endgame = Endgame.of(signature);
+        if (endgame == null) {
+            strong = ChessGame.TeamColor.BLACK;
+            endgame = Endgame.of(Material.mirror(signature));
+        }
+        Bitbase bitbase = (endgame == null) ? null : bitbases.get(endgame);
+        if (bitbase == null) return null;
+
+        ChessGame.TeamColor weak = (strong == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int flip = (strong == ChessGame.TeamColor.WHITE) ? 0 : 56;
+        int strongKing = board.getKingSquare(strong) ^ flip;
+        int weakKing = board.getKingSquare(weak) ^ flip;
+        int[] squares = new int[endgame.pieces().size()];
+        for (int i = 0; i < squares.length; i++) {
+            squares[i] = Long.numberOfTrailingZeros(board.getBitboard(strong, endgame.pieces().get(i))) ^ flip;
+        }
+        boolean strongToMove = game.getTeamTurn() == strong;
+        boolean wins = bitbase.whiteWins(strongToMove, endgame.index(strongKing, weakKing, squares));
+        if (!wins) return Wdl.DRAW;
+        return strongToMove ? Wdl.WIN : Wdl.LOSS;
+    }
+}
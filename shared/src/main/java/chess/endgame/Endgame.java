@@ -0,0 +1,82 @@
+package chess.endgame;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Material;
+
+import java.util.List;
+
+/**
+ * Endgames covered by bitbases: a king and the listed pieces against a lone
+ * king. Only the side with the extra pieces can win any of them, so a single
+ * bit per position ("the stronger side wins") is a complete answer.
+ * <p>
+ * Positions are indexed with the stronger side as white: white king, black
+ * king, then the extra pieces in the listed order, 6 bits each.
+ */
+public enum Endgame {
+    KQK(ChessPiece.PieceType.QUEEN),
+    KRK(ChessPiece.PieceType.ROOK),
+    KPK(ChessPiece.PieceType.PAWN),
+    KBNK(ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT);
+
+    private static final Endgame[] VALUES = values();
+
+    private final List<ChessPiece.PieceType> pieces;
+    private final long signature;
+
+    Endgame(ChessPiece.PieceType... pieces) {
+        this.pieces = List.of(pieces);
+        this.signature = Material.of(ChessGame.TeamColor.WHITE, pieces);
+    }
+
+    /**
+     * @return the stronger side's pieces besides its king, in index order
+     */
+    public List<ChessPiece.PieceType> pieces() {
+        return pieces;
+    }
+
+    /**
+     * @return the material signature with the stronger side as white
+     */
+    public long signature() {
+        return signature;
+    }
+
+    /**
+     * @return number of indexed positions for each side to move
+     */
+    public int positions() {
+        return 1 << (6 * (2 + pieces.size()));
+    }
+
+    public String fileName() {
+        return name().toLowerCase() + ".bb";
+    }
+
+    /**
+     * @param pieceSquares squares of the extra pieces, in {@link #pieces()} order
+     */
+    public int index(int whiteKing, int blackKing, int... pieceSquares) {
+        int index = (whiteKing << 6) | blackKing;
+        for (int square : pieceSquares) {
+            index = (index << 6) | square;
+        }
+        return index;
+    }
+
+    /**
+     * @param signature a board's material signature (see {@link Material})
+     * @return the endgame with exactly this material and white as the
+     * stronger side, or null
+     */
+    public static Endgame of(long signature) {
+        for (Endgame endgame : VALUES) {
+            if (endgame.signature == signature) {
+                return endgame;
+            }
+        }
+        return null;
+    }
+}
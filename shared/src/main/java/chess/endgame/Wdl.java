@@ -0,0 +1,10 @@
+package chess.endgame;
+
+/**
+ * Perfect-play outcome of a position for the side to move
+ */
+public enum Wdl {
+    LOSS,
+    DRAW,
+    WIN
+}
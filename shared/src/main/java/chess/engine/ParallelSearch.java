@@ -0,0 +1,144 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.analysis.TranspositionTable;
+import chess.endgame.Bitbases;
+
+/**
+ * Searches one position on several threads at once, "Lazy SMP" style.
+ * <p>
+ * Every thread runs its own iterative-deepening {@link Search}, with its own
+ * move lists and ordering state, over one shared {@link TranspositionTable}.
+ * The threads do not coordinate beyond that: each one finds results the
+ * others have stored and skips or reorders work accordingly. Half the helpers
+ * start one ply deeper so the threads spread out over different depths.
+ * <p>
+ * The calling thread does the main search; when it finishes, the helpers
+ * are stopped and the deepest completed result among all threads is returned.
+ */
+public class ParallelSearch {
+
+    private final TranspositionTable table;
+    private final int threads;
+    private volatile Search[] running;
+    private Bitbases bitbases;
+
+    /**
+     * @param threads       number of threads to search with, including the caller's
+     * @param hashMegabytes size of the shared transposition table
+     */
+    public ParallelSearch(int threads, int hashMegabytes) {
+        this(threads, new TranspositionTable(hashMegabytes));
+    }
+
+    /**
+     * @param threads number of threads to search with, including the caller's
+     * @param table   transposition table for all threads to share; kept
+     *                between searches, and may be reused by later instances
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        this.table = table;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Finds the best move in a single call
+     *
+     * @param game    the position to search; left unchanged
+     * @param limits  when to stop, applied to each thread
+     * @param threads number of threads to search with
+     * @param table   transposition table to share; its size does not depend on
+     *                the number of threads, and passing the same one again
+     *                lets the next search start warm
+     */
+    public static SearchResult bestMove(ChessGame game, SearchLimits limits, int threads, TranspositionTable table) {
+        return new ParallelSearch(threads, table).search(game, limits);
+    }
+
+    /**
+     * @param bitbases endgame bitbases for every thread to probe, or null for none
+     */
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    /**
+     * Searches the game's current position. The table is kept between calls.
+     *
+     * @param game   the position to search; left unchanged
+     * @param limits when to stop, applied to each thread
+     * @return the deepest completed result of any thread, with nodes summed over all threads
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newSearch();
+        Search[] searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table);
+            searches[i].setBitbases(bitbases);
+        }
+        running = searches;
+
+        SearchResult[] results = new SearchResult[threads];
+        Thread[] helpers = new Thread[threads - 1];
+        for (int i = 1; i < threads; i++) {
+            int index = i;
+            int firstDepth = 1 + (i & 1);
+            ChessGame position = game.copy();
+            helpers[i - 1] = new Thread(() -> results[index] = searches[index].run(position, limits, firstDepth),
+                    "search-helper-" + i);
+            helpers[i - 1].setDaemon(true);
+            helpers[i - 1].start();
+        }
+
+        try {
+            results[0] = searches[0].run(game, limits, 1);
+        } finally {
+            for (Search helper : searches) {
+                helper.stop();
+            }
+            for (Thread helper : helpers) {
+                joinUninterruptibly(helper);
+            }
+            running = null;
+        }
+
+        SearchResult best = results[0];
+        long nodes = 0;
+        for (SearchResult result : results) {
+            if (result == null) continue;
+            nodes += result.nodes();
+            if (result.depth() > best.depth() && result.bestMove() != null) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), nodes, best.principalVariation());
+    }
+
+    /**
+     * Asks a running search, from another thread, to stop and return its
+     * latest completed result
+     */
+    public void stop() {
+        Search[] searches = running;
+        if (searches != null) {
+            for (Search search : searches) {
+                search.stop();
+            }
+        }
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveList;
+import chess.MoveOrderer;
+import chess.PackedMove;
+import chess.analysis.TranspositionTable;
+import chess.endgame.Bitbases;
+import chess.endgame.Wdl;
+import chess.eval.Evaluator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the best move in a position with a negamax alpha-beta search.
+ * <p>
+ * The search deepens one ply at a time until a {@link SearchLimits} limit is
+ * hit, keeping the result of the last iteration that finished. Results are
+ * kept in a {@link TranspositionTable}, so each iteration tries the previous
+ * iteration's best moves first and positions reached by different move
+ * orders are only searched once per depth. Other moves are sorted by a
+ * {@link MoveOrderer}. At the horizon a capture-only quiescence search
+ * settles pending exchanges before the position is evaluated.
+ * <p>
+ * A Search reuses its buffers between calls and is not thread-safe; use one
+ * instance per thread.
+ */
+public class Search {
+
+    public static final int MAX_PLY = 64;
+    public static final int MATE = 32000;
+    private static final int INFINITY = MATE + 1;
+    private static final int DEFAULT_HASH_MB = 16;
+    // Score for a position a bitbase says is won, below any mate score
+    private static final int KNOWN_WIN = 10000;
+
+    // Checking the clock is relatively slow, so only do it every this many nodes
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final TranspositionTable table;
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final MoveOrderer orderer = new MoveOrderer();
+    // Move played at each ply of the current line, for counter-moves
+    private final int[] playedMoves = new int[MAX_PLY + 1];
+
+    private Bitbases bitbases;
+
+    private ChessGame game;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean stopped;
+    private volatile boolean stopRequested;
+
+    public Search() {
+        this(new TranspositionTable(DEFAULT_HASH_MB));
+    }
+
+    /**
+     * @param table transposition table to use; kept between searches, so a
+     *              later search of a related position starts warm
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * @param bitbases endgame bitbases to probe during the search, or null for none
+     */
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    /**
+     * Searches the game's current position
+     *
+     * @param game   the position to search; left unchanged
+     * @param limits when to stop; with no limits at all the search runs to {@link #MAX_PLY}
+     * @return the best move found and its score
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        stopRequested = false;
+        table.newSearch();
+        return run(game, limits, 1);
+    }
+
+    /**
+     * Iterative deepening loop, without resetting the table's age or a
+     * pending {@link #stop()}
+     *
+     * @param firstDepth depth of the first iteration; helper threads of a
+     *                   {@link ParallelSearch} start deeper than the main thread
+     * @return the last completed iteration, or null if a search starting
+     * deeper than one ply was stopped before finishing one
+     */
+    SearchResult run(ChessGame game, SearchLimits limits, int firstDepth) {
+        this.game = game.copy();
+        long start = System.nanoTime();
+        nodes = 0;
+        nodeLimit = limits.nodes();
+        deadline = (limits.millis() > 0) ? start + limits.millis() * 1_000_000 : Long.MAX_VALUE;
+        stopped = false;
+        orderer.clear();
+
+        int maxDepth = (limits.depth() > 0) ? Math.min(limits.depth(), MAX_PLY) : MAX_PLY;
+        SearchResult result = null;
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            // A one-ply first iteration always finishes so there is a move to return
+            if (stopped && (result != null || depth > 1)) break;
+
+            int[] pv = Arrays.copyOf(pvTable[0], pvLength[0]);
+            result = new SearchResult(pv.length > 0 ? PackedMove.toChessMove(pv[0]) : null,
+                    score, depth, nodes, toChessMoves(pv));
+
+            if (pv.length == 0 || isMateScore(score)) break;
+            // Stop early if the next, deeper iteration cannot plausibly finish in time
+            if (limits.millis() > 0 && (System.nanoTime() - start) * 2 > limits.millis() * 1_000_000) break;
+        }
+        this.game = null;
+        return result;
+    }
+
+    /**
+     * Asks a running search, from another thread, to stop and return its
+     * latest completed result
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * @return whether a score means a forced mate, for either side
+     */
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) > MATE - MAX_PLY;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if (depth == 0) return quiesce(ply, alpha, beta);
+        pvLength[ply] = 0;
+        nodes++;
+        if ((nodes % CHECK_INTERVAL) == 0) {
+            checkLimits();
+        }
+        if (stopped) return 0;
+        if (ply == MAX_PLY) return Evaluator.evaluate(game);
+        // A repetition inside the tree is scored as the draw it could be forced into
+        if (ply > 0 && (game.repetitionCount() > 0 || game.getHalfmoveClock() >= 100
+                || game.isInsufficientMaterial())) {
+            return 0;
+        }
+
+        long key = game.zobristKey();
+        int tableMove = PackedMove.NONE;
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            tableMove = TranspositionTable.move(entry);
+            // At the root, search anyway so there is a principal variation to report
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        ChessGame.TeamColor us = game.getTeamTurn();
+        MoveList moves = moveLists[ply];
+        game.legalMoves(us, moves);
+        if (moves.isEmpty()) {
+            // Prefer the quickest mate, so checkmates further from the root score lower
+            return game.isInCheck(us) ? -MATE + ply : 0;
+        }
+        // Below the root, a known endgame needs no further search. Probed only
+        // once there are moves, so mates and stalemates still score as such
+        if (ply > 0 && bitbases != null) {
+            Wdl wdl = bitbases.probe(game);
+            if (wdl != null) {
+                // Adding the evaluation keeps the winning side making progress
+                return switch (wdl) {
+                    case WIN -> KNOWN_WIN + Evaluator.evaluate(game);
+                    case LOSS -> -KNOWN_WIN + Evaluator.evaluate(game);
+                    case DRAW -> 0;
+                };
+            }
+        }
+        int previousMove = (ply > 0) ? playedMoves[ply - 1] : PackedMove.NONE;
+        orderer.order(game, moves, ply, tableMove, previousMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            playedMoves[ply] = move;
+            game.doMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (stopped) return 0;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        orderer.recordCutoff(us, move, ply, previousMove, depth);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = (best >= beta) ? TranspositionTable.LOWER_BOUND
+                : (best > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, PackedMove.withoutFlags(bestMove), scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Searches captures only until the position is quiet, so the static
+     * evaluation is never taken in the middle of an exchange. The side to
+     * move may "stand pat" on the evaluation instead of capturing, and
+     * captures that lose material by static exchange evaluation are skipped.
+     * When in check every evasion is searched, since standing pat is not an option.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        nodes++;
+        if ((nodes % CHECK_INTERVAL) == 0) {
+            checkLimits();
+        }
+        if (stopped) return 0;
+        if (ply == MAX_PLY) return Evaluator.evaluate(game);
+
+        ChessGame.TeamColor us = game.getTeamTurn();
+        MoveList moves = moveLists[ply];
+        boolean inCheck = game.isInCheck(us);
+        int best;
+        if (inCheck) {
+            game.legalMoves(us, moves);
+            if (moves.isEmpty()) return -MATE + ply;
+            best = -INFINITY;
+        } else {
+            best = Evaluator.evaluate(game);
+            if (best >= beta) return best;
+            alpha = Math.max(alpha, best);
+            game.legalCaptures(us, moves);
+        }
+        orderer.order(game, moves, ply, PackedMove.NONE, PackedMove.NONE);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!inCheck && game.see(move) < 0) continue;
+
+            playedMoves[ply] = move;
+            game.doMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (stopped) return 0;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private void checkLimits() {
+        if (stopRequested || (nodeLimit > 0 && nodes >= nodeLimit) || System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+    }
+
+    private void updatePv(int ply, int move) {
+        pvTable[ply][0] = move;
+        System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    /**
+     * Mate scores count plies from the root; the table stores them counted
+     * from the position itself so they stay valid when reached at another ply
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score > MATE - MAX_PLY) return score + ply;
+        if (score < -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score > MATE - MAX_PLY) return score - ply;
+        if (score < -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+
+    private static List<ChessMove> toChessMoves(int[] moves) {
+        List<ChessMove> result = new ArrayList<>(moves.length);
+        for (int move : moves) {
+            result.add(PackedMove.toChessMove(move));
+        }
+        return result;
+    }
+}
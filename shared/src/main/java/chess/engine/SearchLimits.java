@@ -0,0 +1,30 @@
+package chess.engine;
+
+/**
+ * When a {@link Search} should stop. Zero means no limit of that kind; the
+ * search stops as soon as any non-zero limit is reached.
+ *
+ * @param depth  deepest iteration to search, in plies
+ * @param nodes  maximum number of nodes to visit
+ * @param millis maximum wall-clock time in milliseconds
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+
+    public SearchLimits {
+        if (depth < 0 || nodes < 0 || millis < 0) {
+            throw new IllegalArgumentException("Search limits cannot be negative");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    public static SearchLimits millis(long millis) {
+        return new SearchLimits(0, 0, millis);
+    }
+}
@@ -0,0 +1,18 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link Search}: the result of the deepest iteration that
+ * finished before a limit was hit
+ *
+ * @param bestMove           move to play, or null if the side to move has no legal move
+ * @param score              centipawns from the side to move's point of view; see {@link Search#isMateScore}
+ * @param depth              depth of the completed iteration the result comes from
+ * @param nodes              nodes visited across all iterations
+ * @param principalVariation expected line of play, starting with {@code bestMove}
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, List<ChessMove> principalVariation) {
+}
@@ -0,0 +1,59 @@
+package chess.eval;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Static evaluation of a position: material plus piece-square bonuses,
+ * blended between middlegame and endgame values by how much material is
+ * left ("tapered" evaluation).
+ * <p>
+ * The middlegame and endgame sums are maintained incrementally by
+ * {@link ChessBoard} as pieces are added, moved and captured, so evaluating
+ * is a few arithmetic operations regardless of the position.
+ */
+public final class Evaluator {
+
+    private Evaluator() {
+    }
+
+    /**
+     * @return score in centipawns from white's point of view
+     */
+    public static int evaluate(ChessBoard board) {
+        return taper(board.getMidgameScore(), board.getEndgameScore(), board.getPhase());
+    }
+
+    /**
+     * @return score in centipawns from the side to move's point of view
+     */
+    public static int evaluate(ChessGame game) {
+        int score = evaluate(game.getBoard());
+        return (game.getTeamTurn() == ChessGame.TeamColor.WHITE) ? score : -score;
+    }
+
+    /**
+     * Same as {@link #evaluate(ChessBoard)}, but summed over every square
+     * instead of read from the board's running totals
+     */
+    static int evaluateFromScratch(ChessBoard board) {
+        int midgame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece == null) continue;
+            midgame += PieceSquareTables.midgame(piece, square);
+            endgame += PieceSquareTables.endgame(piece, square);
+            phase += PieceSquareTables.phase(piece.getPieceType());
+        }
+        return taper(midgame, endgame, phase);
+    }
+
+    private static int taper(int midgame, int endgame, int phase) {
+        // Promotions can push the phase past its starting value
+        int weight = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (midgame * weight + endgame * (PieceSquareTables.MAX_PHASE - weight)) / PieceSquareTables.MAX_PHASE;
+    }
+}
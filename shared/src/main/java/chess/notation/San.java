@@ -0,0 +1,229 @@
+package chess.notation;
+
+import chess.Bitboards;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import chess.PackedMove;
+
+/**
+ * Standard Algebraic Notation, as used in PGN: {@code e4}, {@code Nbd7},
+ * {@code exd6}, {@code O-O}, {@code e8=Q+}.
+ * <p>
+ * Both directions work from a single legal move list for the position: the
+ * parser matches against it, and the formatter finds the other pieces that
+ * could reach the same square in it to decide on disambiguation. The
+ * {@code int} overloads take that list from the caller, so code handling many
+ * moves per position (or many games) generates it only once.
+ * <p>
+ * The parser accepts check and mate marks, {@code !}/{@code ?} annotations,
+ * a trailing {@code e.p.}, castling written with zeros and promotions without
+ * the {@code =}. The formatter writes strict PGN SAN, without {@code e.p.}.
+ */
+public final class San {
+
+    private static final char[] LETTERS = {'K', 'Q', 'B', 'N', 'R', 'P'};
+
+    private San() {
+    }
+
+    /**
+     * @return the legal move {@code san} describes in the game's position
+     * @throws InvalidMoveException if it matches no legal move, or more than one
+     */
+    public static ChessMove parse(ChessGame game, String san) throws InvalidMoveException {
+        MoveList legal = new MoveList();
+        game.legalMoves(game.getTeamTurn(), legal);
+        int move = parse(game, san, legal);
+        if (move == PackedMove.NONE) {
+            throw new InvalidMoveException("Illegal or ambiguous move " + san);
+        }
+        return PackedMove.toChessMove(move);
+    }
+
+    /**
+     * @param legal the legal moves of the side to move, as generated for this position
+     * @return the matching packed move from {@code legal}, or {@link PackedMove#NONE}
+     * if no single legal move matches
+     */
+    public static int parse(ChessGame game, String san, MoveList legal) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) end--;
+        if (end >= 4 && san.startsWith("e.p.", end - 4)) end -= 4;
+        while (end > 0 && san.charAt(end - 1) == ' ') end--;
+        if (end == 0) return PackedMove.NONE;
+
+        String body = san.substring(0, end);
+        if (body.equals("O-O") || body.equals("0-0") || body.equals("O-O-O") || body.equals("0-0-0")) {
+            int king = game.getBoard().getKingSquare(game.getTeamTurn());
+            if (king < 0) return PackedMove.NONE;
+            int to = (body.length() == 3) ? king + 2 : king - 2;
+            return match(game, legal, ChessPiece.PieceType.KING, king & 7, king >> 3, to, null);
+        }
+
+        int last = end;
+        ChessPiece.PieceType promotion = null;
+        int equals = body.indexOf('=');
+        if (equals >= 0 && equals + 1 < end) {
+            promotion = pieceType(body.charAt(equals + 1));
+            if (promotion == null) return PackedMove.NONE;
+            last = equals;
+        } else if (end >= 3 && Character.isDigit(body.charAt(end - 2)) && pieceType(body.charAt(end - 1)) != null) {
+            // Some writers leave out the '=', as in "e8Q"
+            promotion = pieceType(body.charAt(end - 1));
+            last = end - 1;
+        }
+        if (last < 2) return PackedMove.NONE;
+        int to = square(body.charAt(last - 2), body.charAt(last - 1));
+        if (to < 0) return PackedMove.NONE;
+
+        int i = 0;
+        ChessPiece.PieceType type = pieceType(body.charAt(0));
+        if (type != null) {
+            i = 1;
+        } else {
+            type = ChessPiece.PieceType.PAWN;
+        }
+
+        // Whatever sits between piece letter and destination is disambiguation and 'x'
+        int fromFile = -1;
+        int fromRank = -1;
+        for (; i < last - 2; i++) {
+            char c = body.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x') {
+                return PackedMove.NONE;
+            }
+        }
+        return match(game, legal, type, fromFile, fromRank, to, promotion);
+    }
+
+    /**
+     * @param move a legal move in the game's position
+     * @return the move in SAN, with a check or mate mark
+     */
+    public static String format(ChessGame game, ChessMove move) {
+        MoveList legal = new MoveList();
+        game.legalMoves(game.getTeamTurn(), legal);
+        return format(game, PackedMove.of(move, game.getBoard()), legal);
+    }
+
+    /**
+     * Formats a move, playing it on the game and taking it back to find out
+     * whether it checks or mates. The game is left as it was.
+     *
+     * @param move  a legal packed move in the game's position
+     * @param legal the legal moves of the side to move, as generated for this position
+     */
+    public static String format(ChessGame game, int move, MoveList legal) {
+        StringBuilder san = new StringBuilder(8);
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece.PieceType type = game.getBoard().getPiece(from).getPieceType();
+
+        if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            san.append(to > from ? "O-O" : "O-O-O");
+        } else if (type == ChessPiece.PieceType.PAWN) {
+            if ((from & 7) != (to & 7)) {
+                san.append(file(from)).append('x');
+            }
+            appendSquare(san, to);
+            if (PackedMove.isPromotion(move)) {
+                san.append('=').append(LETTERS[PackedMove.promotion(move).ordinal()]);
+            }
+        } else {
+            san.append(LETTERS[type.ordinal()]);
+            appendDisambiguation(san, game, legal, type, from, to);
+            if (game.getBoard().getPiece(to) != null) {
+                san.append('x');
+            }
+            appendSquare(san, to);
+        }
+
+        ChessGame.TeamColor opponent = (game.getTeamTurn() == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        game.doMove(move);
+        if (game.isInCheck(opponent)) {
+            san.append(game.isInCheckmate(opponent) ? '#' : '+');
+        }
+        game.undoMove();
+        return san.toString();
+    }
+
+    /**
+     * Adds the file, rank or both of the moving piece when another piece of
+     * the same type can also move to {@code to}: the file if that tells them
+     * apart, otherwise the rank, otherwise the whole square
+     */
+    private static void appendDisambiguation(StringBuilder san, ChessGame game, MoveList legal,
+                                             ChessPiece.PieceType type, int from, int to) {
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < legal.size(); i++) {
+            int other = legal.get(i);
+            int otherFrom = PackedMove.from(other);
+            if (PackedMove.to(other) != to || otherFrom == from) continue;
+            if (game.getBoard().getPiece(otherFrom).getPieceType() != type) continue;
+            ambiguous = true;
+            sameFile |= (otherFrom & 7) == (from & 7);
+            sameRank |= (otherFrom >> 3) == (from >> 3);
+        }
+        if (!ambiguous) return;
+        if (!sameFile) {
+            san.append(file(from));
+        } else if (!sameRank) {
+            san.append(rank(from));
+        } else {
+            appendSquare(san, from);
+        }
+    }
+
+    private static int match(ChessGame game, MoveList legal, ChessPiece.PieceType type, int fromFile, int fromRank,
+                             int to, ChessPiece.PieceType promotion) {
+        int found = PackedMove.NONE;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            int from = PackedMove.from(move);
+            if (PackedMove.to(move) != to || PackedMove.promotion(move) != promotion) continue;
+            if ((fromFile >= 0 && (from & 7) != fromFile) || (fromRank >= 0 && (from >> 3) != fromRank)) continue;
+            if (game.getBoard().getPiece(from).getPieceType() != type) continue;
+            if (found != PackedMove.NONE) return PackedMove.NONE;
+            found = move;
+        }
+        return found;
+    }
+
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (c) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+
+    private static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') return -1;
+        return Bitboards.square(rank - '0', file - 'a' + 1);
+    }
+
+    private static char file(int square) {
+        return (char) ('a' + (square & 7));
+    }
+
+    private static char rank(int square) {
+        return (char) ('1' + (square >> 3));
+    }
+
+    private static void appendSquare(StringBuilder san, int square) {
+        san.append(file(square)).append(rank(square));
+    }
+}
@@ -0,0 +1,266 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveList;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * <p>
+ * Perft counts for well-known positions are published, so they double as a
+ * correctness check for move generation (castling, en passant, promotion,
+ * pins) and as a throughput benchmark in nodes per second.
+ * <p>
+ * Usage: {@code Perft <depth> [position|fen] [--divide] [--hash <MB>] [--threads <n>]}
+ * or {@code Perft --suite} to check every reference position.
+ */
+public class Perft {
+
+    /**
+     * Standard perft test positions and their published node counts, indexed
+     * by depth - 1
+     */
+    public enum ReferencePosition {
+        START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                20, 400, 8902, 197281, 4865609),
+        KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                48, 2039, 97862, 4085603),
+        POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                14, 191, 2812, 43238, 674624),
+        POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                6, 264, 9467, 422333),
+        // Needs exact castling rights: white may castle kingside but not queenside
+        POSITION_5("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                44, 1486, 62379, 2103487),
+        POSITION_6("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                46, 2079, 89890, 3894594);
+
+        private final String fen;
+        private final long[] counts;
+
+        ReferencePosition(String fen, long... counts) {
+            this.fen = fen;
+            this.counts = counts;
+        }
+
+        public String fen() {
+            return fen;
+        }
+
+        /**
+         * @return a new game set up in this position
+         */
+        public ChessGame game() {
+            return ChessGame.fromFen(fen);
+        }
+
+        /**
+         * @return the deepest depth with a known count
+         */
+        public int maxDepth() {
+            return counts.length;
+        }
+
+        public long expectedCount(int depth) {
+            return counts[depth - 1];
+        }
+    }
+
+    private final PerftHashTable table;
+    private final int threads;
+
+    /**
+     * Single-threaded perft without a hash table
+     */
+    public Perft() {
+        this(0, 1);
+    }
+
+    /**
+     * @param hashMegabytes size of the subtree-count table, or 0 for none
+     * @param threads       number of threads to split root moves across
+     */
+    public Perft(int hashMegabytes, int threads) {
+        this.table = (hashMegabytes > 0) ? new PerftHashTable(hashMegabytes) : null;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Counts leaf nodes of the legal move tree below the game's position
+     *
+     * @param game  the position to start from; left unchanged on return
+     * @param depth number of plies to search
+     * @return the number of positions reached after exactly {@code depth} plies
+     */
+    public long count(ChessGame game, int depth) {
+        if (threads == 1 || depth < 2) {
+            return perft(game, depth, moveLists(depth));
+        }
+        long total = 0;
+        for (long nodes : divide(game, depth).values()) {
+            total += nodes;
+        }
+        return total;
+    }
+
+    /**
+     * Counts leaf nodes separately under each root move, in generation order.
+     * Root moves are spread across the configured number of threads.
+     *
+     * @param game  the position to start from; left unchanged on return
+     * @param depth number of plies to search, at least 1
+     * @return node count below each legal root move
+     */
+    public Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        List<ChessMove> moves = new ArrayList<>(game.legalMoves(game.getTeamTurn()));
+        Map<ChessMove, Long> result = new LinkedHashMap<>();
+
+        if (threads == 1) {
+            MoveList[] lists = moveLists(depth);
+            for (ChessMove move : moves) {
+                game.doMove(move);
+                result.put(move, perft(game, depth - 1, lists));
+                game.undoMove();
+            }
+            return result;
+        }
+
+        List<RecursiveTask<Long>> tasks = new ArrayList<>(moves.size());
+        for (ChessMove move : moves) {
+            ChessGame child = game.copy();
+            child.doMove(move);
+            tasks.add(new RecursiveTask<>() {
+                @Override
+                protected Long compute() {
+                    return perft(child, depth - 1, moveLists(depth));
+                }
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (RecursiveTask<Long> task : tasks) {
+                pool.execute(task);
+            }
+            for (int i = 0; i < moves.size(); i++) {
+                result.put(moves.get(i), tasks.get(i).join());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    private long perft(ChessGame game, int depth, MoveList[] lists) {
+        if (depth == 0) return 1;
+
+        MoveList moves = lists[depth];
+        game.legalMoves(game.getTeamTurn(), moves);
+        if (depth == 1) return moves.size();
+
+        long key = 0;
+        if (table != null) {
+            key = game.zobristKey();
+            long cached = table.probe(key, depth);
+            if (cached >= 0) return cached;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.undoMove();
+        }
+
+        if (table != null) {
+            table.store(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * One reusable move list per remaining depth, so the recursion allocates nothing
+     */
+    private static MoveList[] moveLists(int depth) {
+        MoveList[] lists = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: Perft <depth> [start|kiwipete|position_3..position_6|<fen>] "
+                    + "[--divide] [--hash <MB>] [--threads <n>]");
+            System.out.println("       Perft --suite [--hash <MB>] [--threads <n>]");
+            return;
+        }
+
+        int depth = 0;
+        ChessGame game = ReferencePosition.START.game();
+        boolean divide = false;
+        boolean suite = false;
+        int hashMegabytes = 0;
+        int threads = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--divide" -> divide = true;
+                case "--suite" -> suite = true;
+                case "--hash" -> hashMegabytes = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    if (args[i].contains("/")) {
+                        game = ChessGame.fromFen(args[i]);
+                    } else if (Character.isDigit(args[i].charAt(0))) {
+                        depth = Integer.parseInt(args[i]);
+                    } else {
+                        game = ReferencePosition.valueOf(args[i].toUpperCase()).game();
+                    }
+                }
+            }
+        }
+
+        Perft perft = new Perft(hashMegabytes, threads);
+        if (suite) {
+            boolean allPassed = true;
+            for (ReferencePosition reference : ReferencePosition.values()) {
+                int maxDepth = reference.maxDepth();
+                long start = System.nanoTime();
+                long nodes = perft.count(reference.game(), maxDepth);
+                boolean passed = nodes == reference.expectedCount(maxDepth);
+                allPassed &= passed;
+                System.out.printf("%-12s depth %d: %,d nodes (expected %,d) %s  %s%n", reference, maxDepth,
+                        nodes, reference.expectedCount(maxDepth), passed ? "OK" : "FAIL", rate(nodes, start));
+            }
+            System.exit(allPassed ? 0 : 1);
+        }
+
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            nodes = 0;
+            for (Map.Entry<ChessMove, Long> entry : perft.divide(game, depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+            System.out.println();
+        } else {
+            nodes = perft.count(game, depth);
+        }
+        System.out.printf("Nodes: %,d%n%s%n", nodes, rate(nodes, start));
+    }
+
+    private static String rate(long nodes, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return String.format("%.3f s, %,.0f nodes/s", seconds, nodes / Math.max(seconds, 1e-9));
+    }
+}
@@ -0,0 +1,47 @@
+package chess.perft;
+
+/**
+ * Fixed-size, always-replace table of perft subtree counts keyed by position
+ * and remaining depth.
+ * <p>
+ * Each slot stores {@code key ^ count} next to {@code count}. Threads read and
+ * write slots without locking; a slot torn by a concurrent write no longer
+ * XORs back to the probed key and is simply treated as a miss.
+ */
+class PerftHashTable {
+
+    private static final long DEPTH_MIX = 0x9E3779B97F4A7C15L;
+
+    private final long[] checks;
+    private final long[] counts;
+    private final int mask;
+
+    /**
+     * @param megabytes approximate memory to use; rounded down to a power of
+     *                  two number of slots
+     */
+    PerftHashTable(int megabytes) {
+        long slots = Math.max(1L, (megabytes * 1024L * 1024L) / 16);
+        int size = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+        checks = new long[size];
+        counts = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @return the stored count, or -1 if the position is not in the table
+     */
+    long probe(long positionKey, int depth) {
+        long key = positionKey ^ (depth * DEPTH_MIX);
+        int index = (int) key & mask;
+        long count = counts[index];
+        return (checks[index] ^ count) == key ? count : -1;
+    }
+
+    void store(long positionKey, int depth, long count) {
+        long key = positionKey ^ (depth * DEPTH_MIX);
+        int index = (int) key & mask;
+        counts[index] = count;
+        checks[index] = key ^ count;
+    }
+}
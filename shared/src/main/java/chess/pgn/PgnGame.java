@@ -0,0 +1,113 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.notation.San;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game read from a PGN file: its tag pairs, its main-line moves in SAN
+ * with move numbers, comments and variations stripped, and the result token
+ *
+ * @param tags   tag pairs in file order
+ * @param moves  main-line moves, e.g. "e4", "Nf3", "O-O", "e8=Q+"
+ * @param result "1-0", "0-1", "1/2-1/2" or "*"
+ */
+public record PgnGame(Map<String, String> tags, List<String> moves, String result) {
+
+    /**
+     * Builds a game from played moves, writing them in SAN
+     *
+     * @param tags  tag pairs, with a FEN tag if the game does not start from
+     *              the standard position
+     * @param moves legal moves in order from the starting position
+     */
+    public static PgnGame of(Map<String, String> tags, List<ChessMove> moves, String result) {
+        PgnGame pgn = new PgnGame(tags, new ArrayList<>(moves.size()), result);
+        ChessGame game = pgn.startPosition();
+        MoveList legal = new MoveList();
+        for (ChessMove move : moves) {
+            game.legalMoves(game.getTeamTurn(), legal);
+            int packed = PackedMove.of(move, game.getBoard());
+            pgn.moves.add(San.format(game, packed, legal));
+            game.doMove(packed);
+        }
+        return pgn;
+    }
+
+    /**
+     * @return the game's starting position, from its FEN tag if it has one
+     */
+    public ChessGame startPosition() {
+        String fen = tags.get("FEN");
+        return (fen != null) ? ChessGame.fromFen(fen) : new ChessGame();
+    }
+
+    /**
+     * Plays every move from the starting position through
+     * {@link ChessGame#makeMove}
+     *
+     * @return the final position
+     * @throws InvalidMoveException naming the first move that does not
+     *                              match exactly one legal move
+     */
+    public ChessGame replay() throws InvalidMoveException {
+        ChessGame game = startPosition();
+        MoveList legal = new MoveList();
+        for (String san : moves) {
+            game.legalMoves(game.getTeamTurn(), legal);
+            int move = San.parse(game, san, legal);
+            if (move == PackedMove.NONE) {
+                throw new InvalidMoveException("Illegal move " + moveNumber(game) + san);
+            }
+            game.makeMove(PackedMove.toChessMove(move));
+        }
+        return game;
+    }
+
+    /**
+     * @return the game as PGN text: tag pairs, then numbered movetext ending
+     * in the result
+     */
+    public String toPgn() {
+        StringBuilder pgn = new StringBuilder();
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            pgn.append('[').append(tag.getKey()).append(" \"")
+                    .append(tag.getValue().replace("\\", "\\\\").replace("\"", "\\\""))
+                    .append("\"]\n");
+        }
+        if (!tags.isEmpty()) pgn.append('\n');
+
+        ChessGame start = startPosition();
+        int number = start.getFullmoveNumber();
+        boolean white = start.getTeamTurn() == ChessGame.TeamColor.WHITE;
+        int lineStart = pgn.length();
+        for (int i = 0; i < moves.size(); i++) {
+            String token = moves.get(i);
+            if (white) {
+                token = number + ". " + token;
+            } else if (i == 0) {
+                token = number + "... " + token;
+            }
+            // Keep lines under 80 characters, as the PGN standard asks
+            if (pgn.length() > lineStart && pgn.length() - lineStart + token.length() >= 80) {
+                pgn.setCharAt(pgn.length() - 1, '\n');
+                lineStart = pgn.length();
+            }
+            pgn.append(token).append(' ');
+            if (!white) number++;
+            white = !white;
+        }
+        return pgn.append(result).append('\n').toString();
+    }
+
+    private static String moveNumber(ChessGame game) {
+        return game.getFullmoveNumber() + (game.getTeamTurn() == ChessGame.TeamColor.WHITE ? ". " : "... ");
+    }
+}
@@ -0,0 +1,172 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Validates every game in a PGN file by replaying it move by move.
+ * <p>
+ * The calling thread reads games with a {@link PgnReader} and hands each to
+ * a worker pool that replays it through {@link ChessGame#makeMove}. At most
+ * a fixed number of games per thread are in flight, so memory stays bounded
+ * however large the file is and the reader waits if replaying falls behind.
+ * <p>
+ * Usage: {@code PgnImporter <file.pgn> [--threads <n>]}
+ */
+public class PgnImporter {
+
+    // Games waiting or being replayed, per worker thread
+    private static final int IN_FLIGHT_PER_THREAD = 256;
+    // Failures kept for the summary; the rest are only counted
+    private static final int MAX_FAILURES = 100;
+    private static final long PROGRESS_NANOS = 1_000_000_000L;
+
+    /**
+     * A game that could not be replayed
+     *
+     * @param game   1-based index of the game in the file
+     * @param reason what went wrong, naming the offending move
+     */
+    public record Failure(long game, String reason) {
+    }
+
+    /**
+     * Totals for an import, or for the part of it done so far
+     *
+     * @param failures the first failures, up to a fixed number
+     */
+    public record Summary(long games, long failed, long plies, long elapsedNanos, List<Failure> failures) {
+
+        public double gamesPerSecond() {
+            return games / Math.max(elapsedNanos / 1e9, 1e-9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d games (%,d failed), %,d plies in %.1f s, %,.0f games/s",
+                    games, failed, plies, elapsedNanos / 1e9, gamesPerSecond());
+        }
+    }
+
+    private final int threads;
+
+    /**
+     * @param threads number of threads replaying games
+     */
+    public PgnImporter(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public Summary importFile(Path file) throws IOException {
+        return importFile(file, null);
+    }
+
+    /**
+     * Reads and replays every game in a file
+     *
+     * @param progress called from the reading thread about once a second
+     *                 with the totals so far, or null
+     * @return totals once every game has been replayed
+     * @throws IOException if the file cannot be read or is not PGN
+     */
+    public Summary importFile(Path file, Consumer<Summary> progress) throws IOException {
+        long start = System.nanoTime();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong plies = new AtomicLong();
+        List<Failure> failures = new ArrayList<>();
+
+        int limit = threads * IN_FLIGHT_PER_THREAD;
+        Semaphore inFlight = new Semaphore(limit);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (PgnReader reader = new PgnReader(file)) {
+            long read = 0;
+            long nextProgress = start + PROGRESS_NANOS;
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                long index = ++read;
+                PgnGame current = game;
+                inFlight.acquire();
+                pool.execute(() -> {
+                    try {
+                        current.replay();
+                        plies.addAndGet(current.moves().size());
+                    } catch (InvalidMoveException | IllegalArgumentException e) {
+                        fail(index, e.getMessage(), failed, failures);
+                    } catch (RuntimeException e) {
+                        // A bug rather than a bad game, but one game must not stop the import
+                        fail(index, e.toString(), failed, failures);
+                    } finally {
+                        completed.incrementAndGet();
+                        inFlight.release();
+                    }
+                });
+
+                if (progress != null && System.nanoTime() >= nextProgress) {
+                    progress.accept(snapshot(start, completed, failed, plies, failures));
+                    nextProgress = System.nanoTime() + PROGRESS_NANOS;
+                }
+            }
+            // Every permit back means every game is done
+            inFlight.acquire(limit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("PGN import interrupted");
+        } finally {
+            pool.shutdownNow();
+        }
+        return snapshot(start, completed, failed, plies, failures);
+    }
+
+    private static void fail(long game, String reason, AtomicLong failed, List<Failure> failures) {
+        failed.incrementAndGet();
+        synchronized (failures) {
+            if (failures.size() < MAX_FAILURES) {
+                failures.add(new Failure(game, reason));
+            }
+        }
+    }
+
+    private static Summary snapshot(long start, AtomicLong completed, AtomicLong failed, AtomicLong plies,
+                                    List<Failure> failures) {
+        List<Failure> copy;
+        synchronized (failures) {
+            copy = new ArrayList<>(failures);
+        }
+        copy.sort(Comparator.comparingLong(Failure::game));
+        return new Summary(completed.get(), failed.get(), plies.get(), System.nanoTime() - start, List.copyOf(copy));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: PgnImporter <file.pgn> [--threads <n>]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            }
+        }
+
+        Summary summary = new PgnImporter(threads).importFile(Path.of(args[0]), System.out::println);
+        for (Failure failure : summary.failures()) {
+            System.out.println("Game " + failure.game() + ": " + failure.reason());
+        }
+        if (summary.failed() > summary.failures().size()) {
+            System.out.printf("... and %,d more failures%n", summary.failed() - summary.failures().size());
+        }
+        System.out.println(summary);
+    }
+}
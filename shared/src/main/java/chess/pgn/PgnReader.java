@@ -0,0 +1,230 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads games one at a time from a PGN file of any size.
+ * <p>
+ * The file is memory-mapped a window at a time, so only the window being
+ * scanned is resident and files larger than 2 GB work. Only the main line
+ * is kept: comments, variations, numeric annotation glyphs, move numbers
+ * and {@code %} escape lines are skipped. A game ends at its result token,
+ * or at the next tag section if the result is missing. A tag section
+ * followed by a blank line and another tag section is a game with no
+ * movetext.
+ * <p>
+ * Not thread-safe; one thread reads while others replay the games it returns.
+ */
+public class PgnReader implements Closeable {
+
+    private static final long WINDOW = 1L << 26;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    // Scratch space for the token being read
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    public PgnReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    /**
+     * @return the next game, or null at the end of the file
+     * @throws IOException if the file cannot be read or a tag pair is malformed
+     */
+    public PgnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<String> moves = new ArrayList<>();
+        boolean inMovetext = false;
+        // Line breaks since the last tag or token; two mean a blank line
+        int newlines = 0;
+
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                return (inMovetext || !tags.isEmpty()) ? new PgnGame(tags, moves, "*") : null;
+            }
+            if (c == '\n') {
+                newlines++;
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\r') continue;
+            boolean blankLine = newlines >= 2;
+            newlines = 0;
+            switch (c) {
+                case '.' -> {
+                }
+                case '[' -> {
+                    if (inMovetext || (blankLine && !tags.isEmpty())) {
+                        // Tag section of the next game; this one had no result
+                        position--;
+                        return new PgnGame(tags, moves, "*");
+                    }
+                    readTag(tags);
+                }
+                case '{' -> skipPast('}');
+                case ';' -> skipPast('\n');
+                case '%' -> skipPast('\n');
+                case '(' -> skipVariation();
+                case '$' -> readToken(c);
+                default -> {
+                    inMovetext = true;
+                    readToken(c);
+                    String result = result();
+                    if (result != null) return new PgnGame(tags, moves, result);
+                    String move = move();
+                    if (move != null) moves.add(move);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return bytes consumed so far, for progress reporting
+     */
+    public long position() {
+        return position;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int read() throws IOException {
+        if (position >= size) return -1;
+        long offset = position - windowStart;
+        if (window == null || offset >= window.limit() || offset < 0) {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW, size - windowStart));
+            offset = 0;
+        }
+        position++;
+        return window.get((int) offset) & 0xFF;
+    }
+
+    private void skipPast(int end) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != end);
+    }
+
+    /**
+     * Skips a variation, including nested ones and any comments inside,
+     * whose parentheses do not count
+     */
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            if (c < 0) return;
+            if (c == '(') depth++;
+            else if (c == ')') depth--;
+            else if (c == '{') skipPast('}');
+            else if (c == ';') skipPast('\n');
+        }
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        tokenLength = 0;
+        int c = read();
+        while (c == ' ') c = read();
+        while (c >= 0 && c != ' ' && c != '"' && c != ']') {
+            append(c);
+            c = read();
+        }
+        String name = new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+        while (c == ' ') c = read();
+        if (c != '"') throw new IOException("Malformed tag pair '" + name + "' at byte " + position);
+
+        tokenLength = 0;
+        for (c = read(); c >= 0 && c != '"'; c = read()) {
+            if (c == '\\') c = read();
+            if (c >= 0) append(c);
+        }
+        tags.put(name, new String(token, 0, tokenLength, StandardCharsets.UTF_8));
+        skipPast(']');
+    }
+
+    /**
+     * Reads a movetext token starting with {@code first}, up to whitespace
+     * or a character that starts something else
+     */
+    private void readToken(int first) throws IOException {
+        tokenLength = 0;
+        append(first);
+        while (true) {
+            int c = read();
+            if (c < 0) return;
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '{' || c == '(' || c == ')'
+                    || c == '[' || c == ';' || c == '$') {
+                position--;
+                return;
+            }
+            append(c);
+        }
+    }
+
+    /**
+     * @return the token as a result string if it is a game termination marker
+     */
+    private String result() {
+        if (tokenLength == 1 && token[0] == '*') return "*";
+        if (tokenLength == 3 && token[1] == '-') {
+            if (token[0] == '1' && token[2] == '0') return "1-0";
+            if (token[0] == '0' && token[2] == '1') return "0-1";
+        }
+        if (tokenLength == 7 && token[0] == '1' && token[1] == '/' && token[6] == '2') return "1/2-1/2";
+        return null;
+    }
+
+    /**
+     * @return the token with any move number prefix ("12." or "12...") and
+     * trailing annotations removed, or null if nothing is left
+     */
+    private String move() {
+        int start = 0;
+        while (start < tokenLength && token[start] >= '0' && token[start] <= '9') start++;
+        if (start == tokenLength) return null;
+        if (token[start] == '.') {
+            while (start < tokenLength && token[start] == '.') start++;
+        } else {
+            // Not a move number after all, e.g. castling written "0-0"
+            start = 0;
+        }
+        int end = tokenLength;
+        while (end > start && (token[end - 1] == '!' || token[end - 1] == '?')) end--;
+        // "e.p." written as its own token after an en passant capture
+        if (end - start == 4 && token[start] == 'e' && token[start + 1] == '.') return null;
+        return (end > start) ? new String(token, start, end - start, StandardCharsets.US_ASCII) : null;
+    }
+
+    private void append(int c) {
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, tokenLength * 2);
+        }
+        token[tokenLength++] = (byte) c;
+    }
+}
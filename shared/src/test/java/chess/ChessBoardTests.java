@@ -0,0 +1,177 @@
+package chess;
+
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessBoardTests {
+
+    private static final ChessGame.TeamColor WHITE = ChessGame.TeamColor.WHITE;
+    private static final ChessGame.TeamColor BLACK = ChessGame.TeamColor.BLACK;
+
+    @Test
+    void startingBitboards() {
+        ChessBoard board = new ChessGame().getBoard();
+        assertEquals(0xFFFFL, board.getBitboard(WHITE));
+        assertEquals(0xFFFFL << 48, board.getBitboard(BLACK));
+        assertEquals(0xFFFFL | 0xFFFFL << 48, board.getOccupancy());
+        assertEquals(0xFFL << 8, board.getBitboard(WHITE, ChessPiece.PieceType.PAWN));
+        assertEquals(Bitboards.bit(3) | Bitboards.bit(59),
+                board.getBitboard(WHITE, ChessPiece.PieceType.QUEEN) | board.getBitboard(BLACK, ChessPiece.PieceType.QUEEN));
+        assertConsistent(board);
+    }
+
+    @Test
+    void addPieceReplacesAndRemoves() {
+        ChessBoard board = new ChessBoard();
+        ChessPosition d4 = ChessPosition.of(4, 4);
+        board.addPiece(d4, ChessPiece.of(WHITE, ChessPiece.PieceType.KNIGHT));
+        board.addPiece(d4, ChessPiece.of(BLACK, ChessPiece.PieceType.ROOK));
+        assertEquals(0L, board.getBitboard(WHITE));
+        assertEquals(Bitboards.bit(27), board.getBitboard(BLACK, ChessPiece.PieceType.ROOK));
+        assertConsistent(board);
+
+        board.addPiece(d4, null);
+        assertEquals(0L, board.getOccupancy());
+        assertNull(board.getPiece(d4));
+        assertThrows(IndexOutOfBoundsException.class, () -> board.getPiece(ChessPosition.of(0, 4)));
+    }
+
+    @Test
+    void bitboardsFollowEveryMove() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            assertConsistent(game.getBoard());
+            game.undoMove();
+        }
+        assertConsistent(game.getBoard());
+    }
+
+    @Test
+    void leaperAttacksStopAtTheEdge() {
+        assertEquals(Bitboards.bit(10) | Bitboards.bit(17), Bitboards.knightAttacks(0));
+        assertEquals(8, Long.bitCount(Bitboards.knightAttacks(27)));
+        assertEquals(Bitboards.bit(54) | Bitboards.bit(55) | Bitboards.bit(62), Bitboards.kingAttacks(63));
+        assertEquals(Bitboards.bit(17), Bitboards.pawnAttacks(WHITE, 8));
+        assertEquals(Bitboards.bit(46), Bitboards.pawnAttacks(BLACK, 55));
+    }
+
+    @Test
+    void attacksMatchAForwardScan() {
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            ChessBoard board = position.game().getBoard();
+            for (ChessGame.TeamColor by : ChessGame.TeamColor.values()) {
+                long attacked = attackedSquares(board, by);
+                for (int square = 0; square < 64; square++) {
+                    boolean expected = (attacked & Bitboards.bit(square)) != 0;
+                    assertEquals(expected, board.isAttacked(square, by), position + " " + by + " on " + square);
+                    assertEquals(expected, board.attackersTo(square, by, board.getOccupancy()) != 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    void attackersToSeesThroughLiftedPieces() {
+        // White rooks doubled on the d-file behind a pawn, black rook on d8
+        ChessBoard board = ChessGame.fromFen("3r2k1/8/8/8/8/3P4/3R4/3RK3 w - - 0 1").getBoard();
+        int d8 = 59;
+        assertEquals(0L, board.attackersTo(d8, WHITE, board.getOccupancy()));
+        long withoutPawn = board.getOccupancy() & ~Bitboards.bit(19);
+        assertEquals(Bitboards.bit(11), board.attackersTo(d8, WHITE, withoutPawn));
+        assertEquals(Bitboards.bit(11) | Bitboards.bit(3), board.attackersTo(d8, WHITE, withoutPawn & ~Bitboards.bit(11)));
+        assertEquals(Bitboards.bit(59), board.attackersTo(19, BLACK, board.getOccupancy()));
+    }
+
+    @Test
+    void kingSquaresFollowMovesAndUndo() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        ChessBoard board = game.getBoard();
+        assertEquals(4, board.getKingSquare(WHITE));
+        assertEquals(60, board.getKingSquare(BLACK));
+
+        game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(1, 7), null));
+        assertEquals(6, board.getKingSquare(WHITE));
+        assertEquals(ChessPosition.of(1, 7), board.getKingPosition(WHITE));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 5), ChessPosition.of(7, 4), null));
+        assertEquals(51, board.getKingSquare(BLACK));
+
+        game.undoMove();
+        game.undoMove();
+        assertEquals(4, board.getKingSquare(WHITE));
+        assertEquals(60, board.getKingSquare(BLACK));
+    }
+
+    @Test
+    void kingSquareOnHandBuiltBoards() {
+        ChessBoard board = new ChessBoard();
+        assertEquals(-1, board.getKingSquare(WHITE));
+        assertNull(board.getKingPosition(WHITE));
+
+        ChessPiece king = ChessPiece.of(WHITE, ChessPiece.PieceType.KING);
+        board.addPiece(ChessPosition.of(1, 1), king);
+        board.addPiece(ChessPosition.of(4, 4), king);
+        board.addPiece(ChessPosition.of(4, 4), null);
+        assertEquals(0, board.getKingSquare(WHITE));
+        // Overwriting the king with another piece removes it
+        board.addPiece(ChessPosition.of(1, 1), ChessPiece.of(BLACK, ChessPiece.PieceType.QUEEN));
+        assertEquals(-1, board.getKingSquare(WHITE));
+        assertEquals(-1, board.getKingSquare(BLACK));
+
+        board.resetBoard();
+        assertEquals(4, board.getKingSquare(WHITE));
+        assertEquals(60, board.getKingSquare(BLACK));
+    }
+
+    /**
+     * Union of every square attacked by the given color's pieces, computed
+     * piece by piece
+     */
+    private static long attackedSquares(ChessBoard board, ChessGame.TeamColor by) {
+        long attacked = 0;
+        long pieces = board.getBitboard(by);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            long occupied = board.getOccupancy();
+            attacked |= switch (board.getPiece(from).getPieceType()) {
+                case PAWN -> Bitboards.pawnAttacks(by, from);
+                case KNIGHT -> Bitboards.knightAttacks(from);
+                case KING -> Bitboards.kingAttacks(from);
+                case BISHOP -> Bitboards.bishopAttacks(from, occupied);
+                case ROOK -> Bitboards.rookAttacks(from, occupied);
+                case QUEEN -> Bitboards.queenAttacks(from, occupied);
+            };
+        }
+        return attacked;
+    }
+
+    /**
+     * Checks the squares array against every bitboard
+     */
+    private static void assertConsistent(ChessBoard board) {
+        long white = 0;
+        long black = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            long bit = Bitboards.bit(square);
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                    boolean here = piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+                    assertEquals(here, (board.getBitboard(color, type) & bit) != 0, color + " " + type + " on " + square);
+                }
+            }
+            if (piece != null) {
+                if (piece.getTeamColor() == WHITE) white |= bit;
+                else black |= bit;
+            }
+        }
+        assertEquals(white, board.getBitboard(WHITE));
+        assertEquals(black, board.getBitboard(BLACK));
+        assertEquals(white | black, board.getOccupancy());
+    }
+}
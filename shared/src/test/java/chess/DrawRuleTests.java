@@ -0,0 +1,74 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static chess.TestMoves.play;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DrawRuleTests {
+
+    @Test
+    void knightShuffleRepeatsThreeTimes() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "Nf3", "Nf6", "Ng1", "Ng8");
+        assertEquals(1, game.repetitionCount());
+        assertFalse(game.isThreefoldRepetition());
+
+        play(game, "Nf3", "Nf6", "Ng1");
+        assertFalse(game.isThreefoldRepetition());
+        play(game, "Ng8");
+        assertTrue(game.isThreefoldRepetition());
+
+        game.undoMove();
+        assertFalse(game.isThreefoldRepetition());
+    }
+
+    @Test
+    void pawnMoveStartsOver() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "Nf3", "Nf6", "Ng1", "Ng8", "e4", "e5");
+        play(game, "Nf3", "Nf6", "Ng1", "Ng8");
+        assertEquals(1, game.repetitionCount());
+    }
+
+    @Test
+    void lostCastlingRightsMakeADifferentPosition() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        play(game, "Ke2", "Ke7", "Ke1", "Ke8");
+        assertEquals(0, game.repetitionCount());
+        play(game, "Ke2", "Ke7", "Ke1", "Ke8");
+        assertEquals(1, game.repetitionCount());
+    }
+
+    @Test
+    void copiesKeepRepetitionHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "Nf3", "Nf6", "Ng1", "Ng8", "Nf3", "Nf6", "Ng1");
+        ChessGame copy = game.copy();
+        play(copy, "Ng8");
+        assertTrue(copy.isThreefoldRepetition());
+    }
+
+    @Test
+    void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("8/8/4k3/8/8/3K4/8/7R w - - 99 80");
+        assertFalse(game.isFiftyMoveDraw());
+        play(game, "Rh2");
+        assertTrue(game.isFiftyMoveDraw());
+        game.undoMove();
+        play(game, "Rh6+");
+        assertTrue(game.isFiftyMoveDraw());
+
+        ChessGame capture = ChessGame.fromFen("8/8/4k3/8/8/3K4/8/4r2R w - - 99 80");
+        play(capture, "Rxe1+");
+        assertFalse(capture.isFiftyMoveDraw());
+    }
+
+    @Test
+    void checkmateOnTheHundredthPlyStands() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 99 80");
+        play(game, "Ra8#");
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+        assertFalse(game.isFiftyMoveDraw());
+    }
+}
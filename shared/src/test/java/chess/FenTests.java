@@ -0,0 +1,102 @@
+package chess;
+
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTests {
+
+    @Test
+    void startPositionMatchesNewGame() {
+        ChessGame game = ChessGame.fromFen(Fen.START);
+        assertEquals(new ChessGame(), game);
+        assertEquals(Fen.START, new ChessGame().toFen());
+    }
+
+    @Test
+    void roundTripsReferencePositions() {
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            assertEquals(position.fen(), ChessGame.fromFen(position.fen()).toFen());
+        }
+    }
+
+    @Test
+    void readsEveryField() {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR w Kq d6 0 3");
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        assertTrue(game.hasCastlingRight(ChessGame.TeamColor.WHITE, true));
+        assertFalse(game.hasCastlingRight(ChessGame.TeamColor.WHITE, false));
+        assertFalse(game.hasCastlingRight(ChessGame.TeamColor.BLACK, true));
+        assertTrue(game.hasCastlingRight(ChessGame.TeamColor.BLACK, false));
+        assertEquals(ChessPosition.of(6, 4), game.getEnPassantSquare());
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(3, game.getFullmoveNumber());
+        assertTrue(game.validMoves(ChessPosition.of(5, 5)).contains(
+                new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 4), null)));
+    }
+
+    @Test
+    void clocksDefaultWhenOmitted() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 b - -");
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    void movesAdvanceAndRestoreClocks() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null));
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBNR b KQkq - 1 2", game.toFen());
+
+        game.undoMove();
+        game.undoMove();
+        assertEquals("rnbqkbnr/pppppppp/8/8/8/5N2/PPPPPPPP/RNBQKB1R b KQkq - 1 1", game.toFen());
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(""));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8 w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("9/8/8/8/8/8/8/8 w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/7x w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 x - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 w KX - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 w - e4 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 w - - x 1"));
+    }
+
+    @Test
+    void rejectsCastlingRightsWithoutKingAndRook() {
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w KQ - 0 1"));
+        // Kingside rook missing, queenside right alone is fine
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K3 w K - 0 1"));
+        assertEquals("r3k2r/8/8/8/8/8/8/R3K3 w Qkq - 0 1", ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K3 w Qkq - 0 1").toFen());
+        // King moved off its square
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("r2k3r/8/8/8/8/8/8/R3K2R w KQq - 0 1"));
+    }
+
+    @Test
+    void rejectsEnPassantWithoutDoublePushedPawn() {
+        // Wrong rank for the side to move
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/8/4p3/8/3P4/4K3 w - e3 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 b - d6 0 1"));
+        // No pawn behind the target, or the target is occupied
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/4P3/8/8/8/4K3 w - d6 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/3PP3/8/8/8/4K3 w - d6 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/3n4/3pP3/8/8/8/4K3 w - d6 0 1"));
+        assertEquals("4k3/8/8/8/3Pp3/8/8/4K3 b - d3 0 1", ChessGame.fromFen("4k3/8/8/8/3Pp3/8/8/4K3 b - d3 0 1").toFen());
+    }
+
+    @Test
+    void rejectsMoveNumbersOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 3000000 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 99999999999 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 99999999999"));
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - " + Fen.MAX_MOVE_NUMBER + " 1");
+        assertEquals(Fen.MAX_MOVE_NUMBER, game.getHalfmoveClock());
+    }
+}
@@ -0,0 +1,52 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MagicBitboardsTests {
+
+    private static final int[][] ROOK = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    @Test
+    void matchRayWalksOnRandomBoards() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int square = 0; square < 64; square++) {
+            for (int i = 0; i < 200; i++) {
+                // Sparse and dense boards both
+                long occupied = (i % 2 == 0) ? random.nextLong() & random.nextLong() : random.nextLong() | random.nextLong();
+                assertEquals(walk(square, occupied, ROOK), MagicBitboards.rookAttacks(square, occupied), "rook on " + square);
+                assertEquals(walk(square, occupied, BISHOP), MagicBitboards.bishopAttacks(square, occupied), "bishop on " + square);
+            }
+        }
+    }
+
+    @Test
+    void emptyBoardAndOwnSquare() {
+        assertEquals(14, Long.bitCount(MagicBitboards.rookAttacks(27, 0L)));
+        assertEquals(13, Long.bitCount(MagicBitboards.bishopAttacks(27, 0L)));
+        assertEquals(7, Long.bitCount(MagicBitboards.bishopAttacks(0, 0L)));
+        // The slider's own square never blocks or counts
+        assertEquals(MagicBitboards.rookAttacks(27, 0L), MagicBitboards.rookAttacks(27, Bitboards.bit(27)));
+        assertEquals(MagicBitboards.rookAttacks(27, 0L) | MagicBitboards.bishopAttacks(27, 0L), Bitboards.queenAttacks(27, 0L));
+    }
+
+    private static long walk(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int col = square % 8 + direction[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) break;
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+}
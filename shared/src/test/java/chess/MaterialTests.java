@@ -0,0 +1,75 @@
+package chess;
+
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MaterialTests {
+
+    @Test
+    void signatureCountsPieces() {
+        ChessBoard board = new ChessGame().getBoard();
+        assertEquals(8, board.getPieceCount(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        assertEquals(2, board.getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        assertEquals(1, board.getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        assertEquals(4, Material.count(board.getMaterialSignature(), ChessPiece.PieceType.ROOK));
+    }
+
+    @Test
+    void signatureFollowsMovesAndUndo() {
+        ChessGame game = Perft.ReferencePosition.POSITION_4.game();
+        long before = game.getBoard().getMaterialSignature();
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            assertEquals(fromScratch(game.getBoard()), game.getBoard().getMaterialSignature());
+            game.undoMove();
+            assertEquals(before, game.getBoard().getMaterialSignature());
+        }
+    }
+
+    @Test
+    void mirrorSwapsColors() {
+        long whiteRook = Material.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        long blackRook = Material.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        assertNotEquals(whiteRook, blackRook);
+        assertEquals(blackRook, Material.mirror(whiteRook));
+        assertEquals(whiteRook, Material.mirror(blackRook));
+        assertEquals(blackRook, ChessGame.fromFen("4k3/8/8/8/8/8/8/r3K3 w - - 0 1").getBoard().getMaterialSignature());
+    }
+
+    @Test
+    void insufficientMaterial() {
+        assertTrue(dead("4k3/8/8/8/8/8/8/4K3 w - - 0 1"));
+        assertTrue(dead("4k3/8/8/8/8/8/8/4KN2 w - - 0 1"));
+        assertTrue(dead("4kb2/8/8/8/8/8/8/4K3 w - - 0 1"));
+        // Bishops on f1 and c8 are both light-squared, as are a2 and h7
+        assertTrue(dead("2b1k3/7B/8/8/8/8/B7/4KB2 w - - 0 1"));
+        assertTrue(dead("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1"));
+
+        assertFalse(dead("4k3/8/8/8/8/8/8/2B1KB2 w - - 0 1"));
+        assertFalse(dead("2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1"));
+        assertFalse(dead("4k3/8/8/8/8/8/8/4KNN1 w - - 0 1"));
+        assertFalse(dead("4kn2/8/8/8/8/8/8/4KB2 w - - 0 1"));
+        assertFalse(dead("4k3/8/8/8/8/8/8/4K2R w - - 0 1"));
+        assertFalse(dead("4k3/7p/8/8/8/8/8/4K3 w - - 0 1"));
+        assertFalse(new ChessGame().isInsufficientMaterial());
+    }
+
+    private static boolean dead(String fen) {
+        return ChessGame.fromFen(fen).isInsufficientMaterial();
+    }
+
+    private static long fromScratch(ChessBoard board) {
+        long signature = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                signature += Material.unit(Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+            }
+        }
+        return signature;
+    }
+}
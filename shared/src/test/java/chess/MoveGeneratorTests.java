@@ -0,0 +1,59 @@
+package chess;
+
+import chess.notation.San;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveGeneratorTests {
+
+    @Test
+    void pinnedPieceStaysOnThePin() {
+        assertEquals(Set.of("Kd1", "Kd2", "Kf1", "Kf2"), moves("4k3/4r3/8/8/8/8/4N3/4K3 w - - 0 1"));
+        assertEquals(Set.of("Kd1", "Kd2", "Kf1", "Kf2", "Re3", "Re4", "Re5", "Re6", "Rxe7+"),
+                moves("4k3/4r3/8/8/8/8/4R3/4K3 w - - 0 1"));
+    }
+
+    @Test
+    void checkIsBlockedOrAvoided() {
+        // No castling out of check
+        assertEquals(Set.of("Kd1", "Ke2", "Kf1", "Kf2", "Nc3", "Nd2"), moves("4k3/8/8/8/1b6/8/8/RN2K3 w Q - 0 1"));
+    }
+
+    @Test
+    void doubleCheckAllowsOnlyKingMoves() {
+        assertEquals(Set.of("Kd2", "Ke2"), moves("4k3/8/8/8/8/3n4/8/R3K2r w Q - 0 1"));
+    }
+
+    @Test
+    void enPassantCannotExposeTheKingAlongARank() {
+        assertEquals(Set.of("Ka4", "Ka6", "Kb6", "b6"), moves("8/8/8/KPp4r/8/8/8/4k3 w - c6 0 1"));
+        assertEquals(Set.of("Ka3", "Ka5", "Kb3", "Kb4", "Kb5", "e3"), moves("8/8/8/8/k2Pp2Q/8/8/4K3 b - d3 0 1"));
+    }
+
+    @Test
+    void enPassantCanCaptureTheCheckingPawn() {
+        assertTrue(moves("8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1").contains("exd3"));
+    }
+
+    @Test
+    void castlingBothWays() {
+        Set<String> moves = moves("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        assertTrue(moves.containsAll(Set.of("O-O", "O-O-O")));
+        assertEquals(26, moves.size());
+        // Not through an attacked square
+        assertFalse(moves("4k3/8/8/8/8/8/5r2/R3K2R w KQ - 0 1").contains("O-O"));
+    }
+
+    private static Set<String> moves(String fen) {
+        ChessGame game = ChessGame.fromFen(fen);
+        Set<String> moves = new TreeSet<>();
+        for (ChessMove move : game.legalMoves(game.getTeamTurn())) {
+            moves.add(San.format(game, move));
+        }
+        return moves;
+    }
+}
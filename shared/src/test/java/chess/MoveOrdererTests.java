@@ -0,0 +1,77 @@
+package chess;
+
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveOrdererTests {
+
+    @Test
+    void hashMoveThenCapturesByVictimAndAttacker() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        int hashMove = PackedMove.of(Bitboards.square(1, 5), Bitboards.square(1, 7), null, PackedMove.CASTLE);
+
+        new MoveOrderer().order(game, moves, 0, hashMove, PackedMove.NONE);
+
+        assertEquals(PackedMove.withoutFlags(hashMove), PackedMove.withoutFlags(moves.get(0)));
+        // Captures must come before every quiet move, most valuable victim first
+        int lastVictim = Integer.MAX_VALUE;
+        boolean seenQuiet = false;
+        for (int i = 1; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.isCapture(move)) {
+                assertFalse(seenQuiet, "capture after a quiet move: " + PackedMove.toString(move));
+                int victim = value(game.getBoard().getPiece(PackedMove.to(move)));
+                assertTrue(victim <= lastVictim);
+                lastVictim = victim;
+            } else {
+                seenQuiet = true;
+            }
+        }
+    }
+
+    @Test
+    void killersAndHistoryRankQuietMoves() {
+        ChessGame game = new ChessGame();
+        MoveOrderer orderer = new MoveOrderer();
+        int knight = PackedMove.of(Bitboards.square(1, 7), Bitboards.square(3, 6), null, PackedMove.NONE);
+        int pawn = PackedMove.of(Bitboards.square(2, 4), Bitboards.square(4, 4), null, PackedMove.DOUBLE_PUSH);
+        orderer.recordCutoff(ChessGame.TeamColor.WHITE, pawn, 3, PackedMove.NONE, 5);
+        orderer.recordCutoff(ChessGame.TeamColor.WHITE, knight, 7, PackedMove.NONE, 1);
+
+        MoveList moves = new MoveList();
+        game.legalMoves(ChessGame.TeamColor.WHITE, moves);
+        orderer.order(game, moves, 7, PackedMove.NONE, PackedMove.NONE);
+        // Killer at this ply first, then the move with the most history
+        assertEquals(knight, moves.get(0));
+        assertEquals(pawn, moves.get(1));
+
+        orderer.clear();
+        game.legalMoves(ChessGame.TeamColor.WHITE, moves);
+        orderer.order(game, moves, 7, PackedMove.NONE, PackedMove.NONE);
+        assertNotEquals(knight, moves.get(0));
+    }
+
+    @Test
+    void ordersChessMoveCollections() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        var ordered = new MoveOrderer().order(game, game.legalMoves(game.getTeamTurn()));
+        assertEquals(48, ordered.size());
+        ChessPiece target = game.getBoard().getPiece(ordered.get(0).getEndPosition());
+        assertNotNull(target);
+    }
+
+    private static int value(ChessPiece piece) {
+        if (piece == null) return 1;
+        return switch (piece.getPieceType()) {
+            case QUEEN -> 9;
+            case ROOK -> 5;
+            case BISHOP, KNIGHT -> 3;
+            case PAWN -> 1;
+            case KING -> 100;
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package chess;
+
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedMoveTests {
+
+    private static final int E7 = Bitboards.square(7, 5);
+    private static final int D8 = Bitboards.square(8, 4);
+
+    @ParameterizedTest
+    @EnumSource(value = ChessPiece.PieceType.class, names = {"QUEEN", "ROOK", "BISHOP", "KNIGHT"})
+    void promotionPieces(ChessPiece.PieceType type) {
+        int move = PackedMove.of(E7, D8, type, PackedMove.CAPTURE);
+        assertEquals(E7, PackedMove.from(move));
+        assertEquals(D8, PackedMove.to(move));
+        assertEquals(type, PackedMove.promotion(move));
+        assertTrue(PackedMove.isPromotion(move));
+        assertTrue(PackedMove.isCapture(move));
+        assertFalse(PackedMove.isEnPassant(move));
+        assertFalse(PackedMove.isCastle(move));
+    }
+
+    @Test
+    void flagsAreIndependent() {
+        int[] flags = {PackedMove.CAPTURE, PackedMove.EN_PASSANT, PackedMove.CASTLE, PackedMove.DOUBLE_PUSH};
+        for (int flag : flags) {
+            int move = PackedMove.of(63, 0, null, flag);
+            assertEquals(63, PackedMove.from(move));
+            assertEquals(0, PackedMove.to(move));
+            assertNull(PackedMove.promotion(move));
+            assertEquals(flag == PackedMove.CAPTURE, PackedMove.isCapture(move));
+            assertEquals(flag == PackedMove.EN_PASSANT, PackedMove.isEnPassant(move));
+            assertEquals(flag == PackedMove.CASTLE, PackedMove.isCastle(move));
+            assertEquals(PackedMove.of(63, 0, null, 0), PackedMove.withoutFlags(move));
+            assertNotEquals(PackedMove.NONE, move);
+        }
+    }
+
+    @Test
+    void readsFlagsFromTheBoard() {
+        ChessBoard board = ChessGame.fromFen("r3k3/1P6/8/3pP3/8/8/6P1/R3K3 w Qq d6 0 1").getBoard();
+        int castle = PackedMove.of(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(1, 3), null), board);
+        int enPassant = PackedMove.of(new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 4), null), board);
+        int push = PackedMove.of(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null), board);
+        int promotion = PackedMove.of(new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 1),
+                ChessPiece.PieceType.QUEEN), board);
+
+        assertEquals(PackedMove.CASTLE, castle & ~PackedMove.withoutFlags(castle));
+        assertEquals(PackedMove.CAPTURE | PackedMove.EN_PASSANT, enPassant & ~PackedMove.withoutFlags(enPassant));
+        assertEquals(PackedMove.DOUBLE_PUSH, push & ~PackedMove.withoutFlags(push));
+        assertEquals(PackedMove.CAPTURE, promotion & ~PackedMove.withoutFlags(promotion));
+        assertEquals("b7a8q", PackedMove.toString(promotion));
+    }
+
+    @Test
+    void legalMovesSurviveChessMoveRoundTrip() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            assertEquals(move, PackedMove.of(PackedMove.toChessMove(move), game.getBoard()), PackedMove.toString(move));
+        }
+    }
+
+    @Test
+    void moveListGrowsPastItsCapacity() {
+        MoveList list = new MoveList(2);
+        for (int i = 1; i <= 300; i++) {
+            list.add(PackedMove.of(i & 63, (i + 1) & 63, null, 0));
+        }
+        assertEquals(300, list.size());
+        assertEquals(PackedMove.of(1, 2, null, 0), list.get(0));
+        assertEquals(PackedMove.of(300 & 63, 301 & 63, null, 0), list.get(299));
+        assertTrue(list.contains(PackedMove.of(5, 6, null, PackedMove.CAPTURE)));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(300));
+
+        List<ChessMove> converted = list.toChessMoves();
+        assertEquals(300, converted.size());
+        assertEquals(PackedMove.toChessMove(list.get(7)), converted.get(7));
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        list.add(PackedMove.of(8, 16, null, 0));
+        assertEquals(1, list.size());
+    }
+}
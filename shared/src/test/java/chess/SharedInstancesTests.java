@@ -0,0 +1,50 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedInstancesTests {
+
+    @Test
+    void positionsAreShared() {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition shared = ChessPosition.of(row, col);
+                assertSame(shared, ChessPosition.of(row, col));
+                assertSame(shared, Bitboards.toPosition(Bitboards.square(row, col)));
+                assertEquals(new ChessPosition(row, col), shared);
+                assertEquals(new ChessPosition(row, col).hashCode(), shared.hashCode());
+            }
+        }
+        // Off the board there is nothing to share, but it still works
+        assertEquals(new ChessPosition(0, 9), ChessPosition.of(0, 9));
+    }
+
+    @Test
+    void piecesAreShared() {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                ChessPiece shared = ChessPiece.of(color, type);
+                assertSame(shared, ChessPiece.of(color, type));
+                assertEquals(new ChessPiece(color, type), shared);
+                assertEquals(color, shared.getTeamColor());
+                assertEquals(type, shared.getPieceType());
+            }
+        }
+        assertNull(ChessPiece.of(null, ChessPiece.PieceType.ROOK).getTeamColor());
+    }
+
+    @Test
+    void generatedMovesUseSharedInstances() {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : game.legalMoves(ChessGame.TeamColor.WHITE)) {
+            ChessPosition start = move.getStartPosition();
+            ChessPosition end = move.getEndPosition();
+            assertSame(ChessPosition.of(start.getRow(), start.getColumn()), start);
+            assertSame(ChessPosition.of(end.getRow(), end.getColumn()), end);
+            assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, game.getBoard().getPiece(start).getPieceType()),
+                    game.getBoard().getPiece(start));
+        }
+    }
+}
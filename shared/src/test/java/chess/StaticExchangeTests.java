@@ -0,0 +1,47 @@
+package chess;
+
+import chess.notation.San;
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StaticExchangeTests {
+
+    @Test
+    void undefendedPieceWinsItsValue() throws InvalidMoveException {
+        assertEquals(320, see("7k/8/8/3n4/4P3/8/8/K7 w - - 0 1", "exd5"));
+    }
+
+    @Test
+    void defendedPawnCostsTheRook() throws InvalidMoveException {
+        assertEquals(100 - 500, see("7k/8/3p4/4p3/8/8/8/K3R3 w - - 0 1", "Rxe5"));
+    }
+
+    @Test
+    void xRayAttackerBehindFirstCapturer() throws InvalidMoveException {
+        assertEquals(100, see("4r2k/8/8/4p3/8/8/4R3/K3R3 w - - 0 1", "Rxe5"));
+    }
+
+    @Test
+    void defenderStopsWhenRecapturingLoses() throws InvalidMoveException {
+        // Queen recapturing would lose it to the queen x-raying behind the rook, so black lets the pawn go
+        assertEquals(100, see("3q3k/3p4/8/8/8/8/3R4/K2Q4 w - - 0 1", "Rxd7"));
+    }
+
+    @Test
+    void capturesOnlyGeneration() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        MoveList captures = new MoveList();
+        game.legalCaptures(game.getTeamTurn(), captures);
+        assertEquals(8, captures.size());
+        for (int i = 0; i < captures.size(); i++) {
+            assertTrue(PackedMove.isCapture(captures.get(i)));
+        }
+    }
+
+    private static int see(String fen, String san) throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen(fen);
+        return game.see(San.parse(game, san));
+    }
+}
@@ -0,0 +1,45 @@
+package chess;
+
+import chess.notation.San;
+
+/**
+ * Move helpers shared by the tests. Positions are best written as FEN and
+ * loaded with {@link ChessGame#fromFen}.
+ */
+public final class TestMoves {
+
+    private TestMoves() {
+    }
+
+    /**
+     * @param square a square in algebraic form, e.g. "e4"
+     */
+    public static ChessPosition square(String square) {
+        return ChessPosition.of(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    /**
+     * @param uci a move in coordinate notation, e.g. "e2e4" or "e7e8q"
+     */
+    public static ChessMove move(String uci) {
+        ChessPiece.PieceType promotion = (uci.length() < 5) ? null : switch (uci.charAt(4)) {
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            default -> ChessPiece.PieceType.KNIGHT;
+        };
+        return new ChessMove(square(uci.substring(0, 2)), square(uci.substring(2, 4)), promotion);
+    }
+
+    /**
+     * Plays moves given in SAN, checking each is legal
+     *
+     * @return the game, for chaining
+     */
+    public static ChessGame play(ChessGame game, String... sanMoves) throws InvalidMoveException {
+        for (String san : sanMoves) {
+            game.makeMove(San.parse(game, san));
+        }
+        return game;
+    }
+}
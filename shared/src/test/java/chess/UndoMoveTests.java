@@ -0,0 +1,67 @@
+package chess;
+
+import chess.notation.San;
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UndoMoveTests {
+
+    @Test
+    void castling() throws InvalidMoveException {
+        String fen = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 5 10";
+        assertRoundTrip(fen, "O-O", "r3k2r/8/8/8/8/8/8/R4RK1 b kq - 6 10");
+        assertRoundTrip(fen, "O-O-O", "r3k2r/8/8/8/8/8/8/2KR3R b kq - 6 10");
+        assertRoundTrip("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 5 10", "O-O-O", "2kr3r/8/8/8/8/8/8/R3K2R w KQ - 6 11");
+    }
+
+    @Test
+    void enPassant() throws InvalidMoveException {
+        assertRoundTrip("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2", "exd6", "4k3/8/3P4/8/8/8/8/4K3 b - - 0 2");
+    }
+
+    @Test
+    void promotionWithCapture() throws InvalidMoveException {
+        assertRoundTrip("r3k3/1P6/8/8/8/8/8/4K3 w q - 3 40", "bxa8=N", "N3k3/8/8/8/8/8/8/4K3 b - - 0 40");
+    }
+
+    @Test
+    void rookCaptureRemovesCastlingRights() throws InvalidMoveException {
+        assertRoundTrip("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", "Rxa8+", "R3k2r/8/8/8/8/8/8/4K2R b Kk - 0 1");
+    }
+
+    @Test
+    void everyMoveOfAReferencePosition() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            String fen = game.toFen();
+            long key = game.zobristKey();
+            game.doMove(moves.get(i));
+            game.undoMove();
+            assertEquals(fen, game.toFen(), PackedMove.toString(moves.get(i)));
+            assertEquals(key, game.zobristKey());
+        }
+    }
+
+    /**
+     * Plays one move, checks where it leads, takes it back and checks that
+     * nothing is left of it
+     */
+    private static void assertRoundTrip(String fen, String san, String after) throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen(fen);
+        ChessBoard board = game.getBoard().copy();
+        long key = game.zobristKey();
+
+        game.doMove(San.parse(game, san));
+        assertEquals(after, game.toFen());
+        game.undoMove();
+
+        assertEquals(fen, game.toFen());
+        assertEquals(board, game.getBoard());
+        assertEquals(key, game.zobristKey());
+        assertEquals(ChessGame.fromFen(fen), game);
+    }
+}
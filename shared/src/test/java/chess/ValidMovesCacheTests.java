@@ -0,0 +1,54 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidMovesCacheTests {
+
+    private static final ChessPosition E2 = ChessPosition.of(2, 5);
+    private static final ChessPosition E3 = ChessPosition.of(3, 5);
+    private static final ChessPosition F1 = ChessPosition.of(1, 6);
+
+    @Test
+    void repeatedQueriesShareOneResult() {
+        ChessGame game = new ChessGame();
+        Collection<ChessMove> first = game.validMoves(E2);
+        assertSame(first, game.validMoves(E2));
+        assertEquals(2, first.size());
+        assertThrows(UnsupportedOperationException.class, first::clear);
+    }
+
+    @Test
+    void makeMoveRefreshesResults() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertTrue(game.validMoves(F1).isEmpty());
+        game.makeMove(new ChessMove(E2, ChessPosition.of(4, 5), null));
+        assertEquals(5, game.validMoves(F1).size());
+    }
+
+    @Test
+    void directBoardChangesRefreshResults() {
+        ChessGame game = new ChessGame();
+        assertEquals(2, game.validMoves(E2).size());
+        game.getBoard().addPiece(E3, ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        assertEquals(0, game.validMoves(E2).size());
+
+        ChessBoard board = new ChessBoard();
+        board.addPiece(E2, ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        game.setBoard(board);
+        assertEquals(2, game.validMoves(E2).size());
+    }
+
+    @Test
+    void undoRestoresEarlierResults() {
+        ChessGame game = new ChessGame();
+        Collection<ChessMove> before = game.validMoves(F1);
+        game.doMove(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(3, 7), null));
+        assertEquals(2, game.validMoves(F1).size());
+        game.undoMove();
+        assertEquals(before, game.validMoves(F1));
+    }
+}
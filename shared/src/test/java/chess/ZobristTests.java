@@ -0,0 +1,69 @@
+package chess;
+
+import chess.notation.San;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTests {
+
+    @Test
+    void incrementalKeyMatchesKeyFromScratch() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/1P6/8/8/4p3/8/3P4/R3K2R w KQkq - 0 1");
+        // Double push, en passant, castling, king move, promotion with capture
+        for (String san : new String[]{"d4", "exd3", "O-O", "Kd7", "bxa8=Q"}) {
+            game.makeMove(San.parse(game, san));
+            assertEquals(placementKey(game.getBoard()), game.getBoard().getZobristKey(), san);
+            assertEquals(ChessGame.fromFen(game.toFen()).zobristKey(), game.zobristKey(), san);
+        }
+    }
+
+    @Test
+    void sideToMoveChangesKey() {
+        assertNotEquals(key("4k3/8/8/8/8/8/8/4K3 w - - 0 1"), key("4k3/8/8/8/8/8/8/4K3 b - - 0 1"));
+    }
+
+    @Test
+    void castlingRightsChangeKey() {
+        long all = key("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertNotEquals(all, key("r3k2r/8/8/8/8/8/8/R3K2R w Kkq - 0 1"));
+        assertNotEquals(all, key("r3k2r/8/8/8/8/8/8/R3K2R w KQk - 0 1"));
+        assertNotEquals(key("r3k2r/8/8/8/8/8/8/R3K2R w K - 0 1"), key("r3k2r/8/8/8/8/8/8/R3K2R w Q - 0 1"));
+    }
+
+    @Test
+    void capturableEnPassantFileChangesKey() {
+        long none = key("4k3/8/8/3pPp2/8/8/8/4K3 w - - 0 2");
+        long d6 = key("4k3/8/8/3pPp2/8/8/8/4K3 w - d6 0 2");
+        long f6 = key("4k3/8/8/3pPp2/8/8/8/4K3 w - f6 0 2");
+        assertNotEquals(none, d6);
+        assertNotEquals(none, f6);
+        assertNotEquals(d6, f6);
+        // No white pawn can take on a6, so it is the same position as without it
+        assertEquals(key("4k3/8/8/p3P3/8/8/8/4K3 w - - 0 2"), key("4k3/8/8/p3P3/8/8/8/4K3 w - a6 0 2"));
+    }
+
+    @Test
+    void transpositionsAreEqual() throws InvalidMoveException {
+        ChessGame first = TestMoves.play(new ChessGame(), "e4", "Nf6", "Nf3", "e6", "d4");
+        ChessGame second = TestMoves.play(new ChessGame(), "Nf3", "e6", "d4", "Nf6", "e4");
+        assertEquals(first.zobristKey(), second.zobristKey());
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    private static long key(String fen) {
+        return ChessGame.fromFen(fen).zobristKey();
+    }
+
+    private static long placementKey(ChessBoard board) {
+        long key = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                key ^= Zobrist.piece(piece, square);
+            }
+        }
+        return key;
+    }
+}
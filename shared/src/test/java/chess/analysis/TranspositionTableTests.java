@@ -0,0 +1,52 @@
+package chess.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTests {
+
+    @Test
+    void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(TranspositionTable.MISS, table.probe(42L));
+
+        table.store(42L, 0x1234, -317, 7, TranspositionTable.UPPER_BOUND);
+        long entry = table.probe(42L);
+        assertEquals(0x1234, TranspositionTable.move(entry));
+        assertEquals(-317, TranspositionTable.score(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.bound(entry));
+        assertEquals(TranspositionTable.MISS, table.probe(43L));
+    }
+
+    @Test
+    void shallowBoundDoesNotOverwriteDeeperEntry() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42L, 0x0101, 50, 8, TranspositionTable.EXACT);
+        table.store(42L, 0x0202, 10, 3, TranspositionTable.LOWER_BOUND);
+        assertEquals(8, TranspositionTable.depth(table.probe(42L)));
+
+        // Once the entry is from an earlier search it is fair game
+        table.newSearch();
+        table.store(42L, 0, 10, 3, TranspositionTable.LOWER_BOUND);
+        long entry = table.probe(42L);
+        assertEquals(3, TranspositionTable.depth(entry));
+        assertEquals(0x0101, TranspositionTable.move(entry));
+    }
+
+    @Test
+    void fullBucketReplacesShallowestOldEntry() {
+        TranspositionTable table = new TranspositionTable(1);
+        // Same high 32 bits, so all of these land in one bucket
+        long bucket = 5L << 32;
+        for (int i = 1; i <= 4; i++) {
+            table.store(bucket | i, i, 0, 10 + i, TranspositionTable.EXACT);
+        }
+        table.store(bucket | 5, 5, 0, 1, TranspositionTable.EXACT);
+        assertEquals(TranspositionTable.MISS, table.probe(bucket | 1));
+        for (int i = 2; i <= 5; i++) {
+            assertEquals(i, TranspositionTable.move(table.probe(bucket | i)));
+        }
+    }
+}
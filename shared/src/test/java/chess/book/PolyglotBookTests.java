@@ -0,0 +1,96 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.TestMoves;
+import chess.notation.San;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PolyglotBookTests {
+
+    // Any table works as long as the book was written with the same one
+    private static final PolyglotKeys KEYS = new PolyglotKeys(new SplittableRandom(18).longs(PolyglotKeys.TABLE_SIZE).toArray());
+
+    @Test
+    void looksUpWeightedMoves() throws IOException, InvalidMoveException {
+        ChessGame start = new ChessGame();
+        ChessGame afterE4 = TestMoves.play(new ChessGame(), "e4");
+
+        Path file = writeBook(
+                entry(KEYS.key(start), "e2", "e4", 0, 3),
+                entry(KEYS.key(start), "d2", "d4", 0, 5),
+                // Not legal from the start; must be filtered out
+                entry(KEYS.key(start), "e2", "e5", 0, 9),
+                entry(KEYS.key(afterE4), "c7", "c5", 0, 1));
+
+        PolyglotBook book = new PolyglotBook(file, KEYS);
+        assertEquals(4, book.size());
+        List<BookMove> moves = book.moves(start);
+        assertEquals(List.of(new BookMove(San.parse(start, "d4"), 5), new BookMove(San.parse(start, "e4"), 3)), moves);
+        assertEquals(San.parse(afterE4, "c5"), book.pickMove(afterE4, new Random(1)));
+
+        TestMoves.play(afterE4, "c5");
+        assertTrue(book.moves(afterE4).isEmpty());
+        assertNull(book.pickMove(afterE4, new Random(1)));
+    }
+
+    @Test
+    void castlingIsWrittenAsKingTakesRook() throws IOException, InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 0 1");
+
+        PolyglotBook book = new PolyglotBook(writeBook(entry(KEYS.key(game), "e1", "h1", 0, 1)), KEYS);
+        assertEquals(San.parse(game, "O-O"), book.moves(game).get(0).move());
+    }
+
+    @Test
+    void keyTracksCastlingRightsAndTurn() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = KEYS.key(game);
+        TestMoves.play(game, "Nf3", "Nf6", "Ng1", "Ng8");
+        assertEquals(start, KEYS.key(game));
+
+        // Same placement and turn, but both kings have moved and lost their castling rights
+        ChessGame kingsMoved = TestMoves.play(new ChessGame(), "e3", "e6", "Ke2", "Ke7", "Ke1", "Ke8");
+        ChessGame castlingKept = TestMoves.play(new ChessGame(), "e3", "e6");
+        assertEquals(castlingKept.getBoard(), kingsMoved.getBoard());
+        assertNotEquals(KEYS.key(castlingKept), KEYS.key(kingsMoved));
+
+        ChessGame blackToMove = castlingKept.copy();
+        blackToMove.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(KEYS.key(castlingKept), KEYS.key(blackToMove));
+    }
+
+    private static byte[] entry(long key, String from, String to, int promotion, int weight) {
+        ChessPosition start = TestMoves.square(from);
+        ChessPosition end = TestMoves.square(to);
+        int move = (end.getColumn() - 1) | ((end.getRow() - 1) << 3) | ((start.getColumn() - 1) << 6)
+                | ((start.getRow() - 1) << 9) | (promotion << 12);
+        return ByteBuffer.allocate(16).putLong(key).putShort((short) move).putShort((short) weight).putInt(0).array();
+    }
+
+    private static Path writeBook(byte[]... entries) throws IOException {
+        byte[][] sorted = entries.clone();
+        Arrays.sort(sorted, Comparator.comparing(e -> ByteBuffer.wrap(e).getLong(), Long::compareUnsigned));
+        ByteBuffer book = ByteBuffer.allocate(16 * sorted.length);
+        for (byte[] e : sorted) {
+            book.put(e);
+        }
+        Path file = Files.createTempFile("book", ".bin");
+        file.toFile().deleteOnExit();
+        Files.write(file, book.array());
+        return file;
+    }
+}
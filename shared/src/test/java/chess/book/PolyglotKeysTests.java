@@ -0,0 +1,50 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.TestMoves;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PolyglotKeysTests {
+
+    private static final PolyglotKeys KEYS = PolyglotKeys.standard();
+
+    // Test keys published with the Polyglot book format specification
+    @Test
+    void startPosition() {
+        assertEquals(0x463b96181691fc9cL, KEYS.key(new ChessGame()));
+    }
+
+    @Test
+    void enPassantCountsOnlyWhenCapturable() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        // e3 is not capturable, so the en passant file is left out
+        assertEquals(0x823c9b50fd114196L, KEYS.key(TestMoves.play(game, "e4")));
+        assertEquals(0x0756b94461c50fb0L, KEYS.key(TestMoves.play(game, "d5")));
+        assertEquals(0x662fafb965db29d4L, KEYS.key(TestMoves.play(game, "e5")));
+        assertEquals(0x22a48b5a8e47ff78L, KEYS.key(TestMoves.play(game, "f5")));
+    }
+
+    @Test
+    void castlingRightsAreLost() throws InvalidMoveException {
+        ChessGame game = TestMoves.play(new ChessGame(), "e4", "d5", "e5", "f5");
+        assertEquals(0x652a607ca3f242c1L, KEYS.key(TestMoves.play(game, "Ke2")));
+        assertEquals(0x00fdd303c946bdd9L, KEYS.key(TestMoves.play(game, "Kf7")));
+    }
+
+    @Test
+    void enPassantCaptureAndRookMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(0x3c8123ea7b067637L, KEYS.key(TestMoves.play(game, "a4", "b5", "h4", "b4", "c4")));
+        assertEquals(0x5c3f9b829b279560L, KEYS.key(TestMoves.play(game, "bxc3", "Ra3")));
+    }
+
+    @Test
+    void fenAndMovesAgree() throws InvalidMoveException {
+        ChessGame played = TestMoves.play(new ChessGame(), "e4", "d5", "e5", "f5");
+        ChessGame loaded = ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        assertEquals(KEYS.key(played), KEYS.key(loaded));
+    }
+}
@@ -0,0 +1,72 @@
+package chess.endgame;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitbaseTests {
+
+    private static Bitbases bitbases;
+
+    @BeforeAll
+    static void generate() {
+        // Building KPK builds KQK and KRK too, for promotions
+        try (BitbaseGenerator generator = new BitbaseGenerator(2)) {
+            bitbases = new Bitbases(List.of(generator.generate(Endgame.KPK), generator.generate(Endgame.KQK),
+                    generator.generate(Endgame.KRK)));
+        }
+    }
+
+    @Test
+    void kingInFrontOfPawnOnSixthWins() {
+        assertEquals(Wdl.WIN, probe("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"));
+        assertEquals(Wdl.LOSS, probe("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1"));
+    }
+
+    @Test
+    void rookPawnWithDefenderInCornerDraws() {
+        assertEquals(Wdl.DRAW, probe("7k/8/8/5K1P/8/8/8/8 w - - 0 1"));
+        assertEquals(Wdl.DRAW, probe("7k/8/8/5K1P/8/8/8/8 b - - 0 1"));
+    }
+
+    @Test
+    void stalemateAndHangingQueenDraw() {
+        assertEquals(Wdl.DRAW, probe("k7/8/1Q6/8/8/8/8/7K b - - 0 1"));
+        assertEquals(Wdl.DRAW, probe("k7/1Q6/8/8/8/8/8/7K b - - 0 1"));
+        assertEquals(Wdl.WIN, probe("k7/8/1Q6/8/8/8/8/7K w - - 0 1"));
+        assertEquals(Wdl.LOSS, probe("k7/2R5/8/8/8/8/8/7K b - - 0 1"));
+    }
+
+    @Test
+    void colorsAreMirrored() {
+        assertEquals(Wdl.LOSS, probe("8/8/8/8/4p3/4k3/8/4K3 w - - 0 1"));
+        assertNull(bitbases.probe(new ChessGame()));
+    }
+
+    @Test
+    void writtenFilesMapBack() throws IOException {
+        Path directory = Files.createTempDirectory("bitbases");
+        try (BitbaseGenerator generator = new BitbaseGenerator(1)) {
+            generator.write(Endgame.KRK, directory);
+        }
+        Path file = directory.resolve(Endgame.KRK.fileName());
+        file.toFile().deleteOnExit();
+        directory.toFile().deleteOnExit();
+
+        assertEquals(Endgame.KRK.positions() / 4, Files.size(file));
+        Bitbases loaded = Bitbases.load(directory);
+        assertEquals(Wdl.LOSS, loaded.probe(ChessGame.fromFen("k7/2R5/8/8/8/8/8/7K b - - 0 1")));
+        assertNull(loaded.probe(ChessGame.fromFen("k7/2Q5/8/8/8/8/8/7K b - - 0 1")));
+    }
+
+    private static Wdl probe(String fen) {
+        return bitbases.probe(ChessGame.fromFen(fen));
+    }
+}
@@ -0,0 +1,54 @@
+package chess.endgame;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KBNK has 2^24 positions and takes tens of seconds to generate on a single
+ * core, so it is built once here rather than with the smaller endgames
+ */
+public class KbnkBitbaseTests {
+
+    private static Bitbases bitbases;
+
+    @BeforeAll
+    static void generate() {
+        try (BitbaseGenerator generator = new BitbaseGenerator(Runtime.getRuntime().availableProcessors())) {
+            bitbases = new Bitbases(List.of(generator.generate(Endgame.KBNK)));
+        }
+    }
+
+    @Test
+    void bishopAndKnightWin() {
+        assertEquals(Wdl.WIN, probe("8/8/3k4/8/8/8/8/1NB1K3 w - - 0 1"));
+        assertEquals(Wdl.LOSS, probe("8/8/3k4/8/8/8/8/1NB1K3 b - - 0 1"));
+        // With the colors swapped
+        assertEquals(Wdl.WIN, probe("8/8/8/8/8/8/8/1nb1k2K b - - 0 1"));
+    }
+
+    @Test
+    void mateInTheBishopsCorner() {
+        assertEquals(Wdl.LOSS, probe("7k/5K2/8/6N1/8/8/8/B7 b - - 0 1"));
+    }
+
+    @Test
+    void capturingAPieceDraws() {
+        assertEquals(Wdl.DRAW, probe("8/8/8/8/4k3/3N4/8/B6K b - - 0 1"));
+        // White to move saves the knight
+        assertEquals(Wdl.WIN, probe("8/8/8/8/4k3/3N4/8/B6K w - - 0 1"));
+    }
+
+    @Test
+    void stalemateDraws() {
+        assertEquals(Wdl.DRAW, probe("7k/5K2/5N2/8/8/8/8/1B6 b - - 0 1"));
+    }
+
+    private static Wdl probe(String fen) {
+        return bitbases.probe(ChessGame.fromFen(fen));
+    }
+}
@@ -0,0 +1,30 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.analysis.TranspositionTable;
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSearchTests {
+
+    @Test
+    void returnsLegalMoveAtRequestedDepth() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        SearchResult parallel = ParallelSearch.bestMove(game, SearchLimits.depth(4), 3, new TranspositionTable(4));
+
+        assertEquals(4, parallel.depth());
+        assertEquals(parallel.bestMove(), parallel.principalVariation().get(0));
+        assertTrue(game.legalMoves(game.getTeamTurn()).contains(parallel.bestMove()));
+        assertEquals(Perft.ReferencePosition.KIWIPETE.game(), game);
+    }
+
+    @Test
+    void stopsOnTimeLimit() {
+        long start = System.nanoTime();
+        SearchResult result = new ParallelSearch(2, 1).search(new ChessGame(), SearchLimits.millis(100));
+        assertNotNull(result.bestMove());
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+    }
+}
@@ -0,0 +1,49 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.notation.San;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTests {
+
+    @Test
+    void findsBackRankMate() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+        assertEquals(San.parse(game, "Ra8#"), result.bestMove());
+        assertEquals(Search.MATE - 1, result.score());
+        assertTrue(Search.isMateScore(result.score()));
+    }
+
+    @Test
+    void winsHangingQueen() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("7k/8/8/4q3/8/8/8/K3R3 w - - 0 1");
+
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+        assertEquals(San.parse(game, "Rxe5"), result.bestMove());
+        assertEquals(result.bestMove(), result.principalVariation().get(0));
+        assertTrue(result.score() > 0);
+    }
+
+    @Test
+    void respectsNodeLimitAndLeavesGameUnchanged() {
+        ChessGame game = new ChessGame();
+        SearchResult result = new Search().search(game, SearchLimits.nodes(5000));
+        assertNotNull(result.bestMove());
+        assertTrue(result.nodes() < 5000 + 1024);
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    void noMoveWhenCheckmated() {
+        ChessGame game = ChessGame.fromFen("7k/6Q1/5K2/8/8/8/8/8 b - - 0 1");
+
+        SearchResult result = new Search().search(game, SearchLimits.depth(2));
+        assertNull(result.bestMove());
+        assertEquals(-Search.MATE, result.score());
+    }
+}
@@ -0,0 +1,64 @@
+package chess.eval;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluatorTests {
+
+    @Test
+    void startingPositionIsBalanced() {
+        ChessGame game = new ChessGame();
+        assertEquals(0, Evaluator.evaluate(game));
+        assertEquals(PieceSquareTables.MAX_PHASE, game.getBoard().getPhase());
+    }
+
+    @Test
+    void scoredFromSideToMove() {
+        ChessGame game = new ChessGame();
+        game.getBoard().addPiece(ChessPosition.of(8, 4), null);
+        assertTrue(Evaluator.evaluate(game) > 800);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertTrue(Evaluator.evaluate(game) < -800);
+    }
+
+    @Test
+    void incrementalMatchesFullRescan() {
+        Random random = new Random(15);
+        MoveList moves = new MoveList();
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            ChessGame game = position.game();
+            for (int ply = 0; ply < 80; ply++) {
+                game.legalMoves(game.getTeamTurn(), moves);
+                if (moves.isEmpty()) break;
+                game.doMove(moves.get(random.nextInt(moves.size())));
+                assertEquals(Evaluator.evaluateFromScratch(game.getBoard()), Evaluator.evaluate(game.getBoard()));
+            }
+            while (true) {
+                try {
+                    game.undoMove();
+                } catch (IllegalStateException e) {
+                    break;
+                }
+            }
+            assertEquals(Evaluator.evaluate(position.game().getBoard()), Evaluator.evaluate(game.getBoard()));
+        }
+    }
+
+    @Test
+    void addPieceUpdatesTotals() {
+        ChessGame game = new ChessGame();
+        int before = game.getBoard().getMidgameScore();
+        game.getBoard().addPiece(ChessPosition.of(4, 4),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        assertEquals(before + PieceSquareTables.midgame(
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT), 27), game.getBoard().getMidgameScore());
+    }
+}
@@ -0,0 +1,87 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SanTests {
+
+    private static final String AMBIGUOUS = "1n1k1n2/4p3/8/R7/4Q2Q/8/6K1/R6Q";
+
+    @Test
+    void formatsPiecesCapturesAndCastling() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        assertEquals("O-O", San.format(game, move("e1g1")));
+        assertEquals("O-O-O", San.format(game, move("e1c1")));
+        assertEquals("Nxf7", San.format(game, move("e5f7")));
+        assertEquals("Qxf6", San.format(game, move("f3f6")));
+        assertEquals("dxe6", San.format(game, move("d5e6")));
+        assertEquals(Perft.ReferencePosition.KIWIPETE.game(), game);
+    }
+
+    @Test
+    void disambiguatesByFileRankOrSquare() {
+        // Knights on b8 and f8 both reach d7; rooks on a1 and a5 both reach a3;
+        // queens on h4, e4 and h1 all reach e1
+        ChessGame game = ChessGame.fromFen(AMBIGUOUS + " w - - 0 1");
+        assertEquals("R1a3", San.format(game, move("a1a3")));
+        assertEquals("Qh4e1", San.format(game, move("h4e1")));
+        assertEquals("Qee1", San.format(game, move("e4e1")));
+        assertEquals("Q1e1", San.format(game, move("h1e1")));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertEquals("Nbd7", San.format(game, move("b8d7")));
+    }
+
+    @Test
+    void formatsPromotionWithCheckAndMate() {
+        ChessGame game = ChessGame.fromFen("7k/4P3/6K1/8/8/8/8/8 w - - 0 1");
+        assertEquals("e8=Q#", San.format(game, move("e7e8q")));
+        assertEquals("e8=R#", San.format(game, move("e7e8r")));
+        assertEquals("e8=N", San.format(game, move("e7e8n")));
+        ChessGame check = ChessGame.fromFen("3k4/4P3/8/8/8/8/8/4K3 w - - 0 1");
+        assertEquals("e8=Q+", San.format(check, move("e7e8q")));
+    }
+
+    @Test
+    void parsesEveryFormattedMoveBack() {
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            ChessGame game = position.game();
+            MoveList legal = new MoveList();
+            game.legalMoves(game.getTeamTurn(), legal);
+            for (int i = 0; i < legal.size(); i++) {
+                String san = San.format(game, legal.get(i), legal);
+                assertEquals(legal.get(i), San.parse(game, san, legal), position + " " + san);
+            }
+        }
+    }
+
+    @Test
+    void parsesLenientForms() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3");
+        assertEquals(move("e5d6"), San.parse(game, "exd6 e.p."));
+        assertEquals(move("e5d6"), San.parse(game, "exd6"));
+        assertEquals(move("g1f3"), San.parse(game, "Nf3!?"));
+        assertEquals(move("e1e2"), San.parse(game, "Ke2"));
+
+        ChessGame castle = Perft.ReferencePosition.KIWIPETE.game();
+        assertEquals(move("e1g1"), San.parse(castle, "0-0"));
+        assertEquals(move("e1c1"), San.parse(castle, "O-O-O"));
+
+        ChessGame promote = ChessGame.fromFen("7k/4P3/6K1/8/8/8/8/8 w - - 0 1");
+        assertEquals(move("e7e8q"), San.parse(promote, "e8Q"));
+    }
+
+    @Test
+    void rejectsIllegalAndAmbiguousMoves() {
+        ChessGame game = ChessGame.fromFen(AMBIGUOUS + " b - - 0 1");
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, "Nd7"));
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, "Nd6"));
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, "Zz9"));
+        assertDoesNotThrow(() -> San.parse(game, "Nfd7"));
+    }
+}
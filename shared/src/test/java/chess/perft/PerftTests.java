@@ -0,0 +1,62 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTests {
+
+    @Test
+    void startPosition() {
+        assertReferenceCount(Perft.ReferencePosition.START, 3);
+    }
+
+    @Test
+    void kiwipeteCastlingAndEnPassant() {
+        assertReferenceCount(Perft.ReferencePosition.KIWIPETE, 3);
+    }
+
+    @Test
+    void position3EnPassantPins() {
+        assertReferenceCount(Perft.ReferencePosition.POSITION_3, 4);
+    }
+
+    @Test
+    void position4Promotions() {
+        assertReferenceCount(Perft.ReferencePosition.POSITION_4, 3);
+    }
+
+    @Test
+    void position5CastlingRights() {
+        assertReferenceCount(Perft.ReferencePosition.POSITION_5, 3);
+    }
+
+    @Test
+    void position6() {
+        assertReferenceCount(Perft.ReferencePosition.POSITION_6, 3);
+    }
+
+    @Test
+    void divideSumsToCount() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        Map<ChessMove, Long> divide = new Perft().divide(game, 2);
+        assertEquals(48, divide.size());
+        assertEquals(2039, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void hashedAndThreadedMatchPlain() {
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.game();
+        assertEquals(97862, new Perft(4, 1).count(game, 3));
+        assertEquals(97862, new Perft(4, 3).count(game, 3));
+        assertEquals(Perft.ReferencePosition.KIWIPETE.game(), game);
+    }
+
+    private void assertReferenceCount(Perft.ReferencePosition position, int depth) {
+        assertEquals(position.expectedCount(depth), new Perft().count(position.game(), depth));
+    }
+}
@@ -0,0 +1,140 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.notation.San;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnTests {
+
+    // Morphy vs Duke of Brunswick and Count Isouard, Paris 1858
+    private static final String OPERA_GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move already.} 4. dxe5 Bxf3
+            5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 Qe7 8. Nc3 c6 9. Bg5 b5?! (9... Qc7 10. O-O-O)
+            10. Nxb5 cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7 14. Rd1 Qe6
+            15. Bxd7+ Nxd7 16. Qb8+! Nxb8 17. Rd8# 1-0
+            """;
+
+    @Test
+    void readsTagsAndMainLine() throws IOException {
+        List<PgnGame> games = read(OPERA_GAME);
+        assertEquals(1, games.size());
+        PgnGame game = games.get(0);
+        assertEquals("Paul Morphy", game.tags().get("White"));
+        assertEquals("1-0", game.result());
+        assertEquals(33, game.moves().size());
+        assertEquals("Bxf3", game.moves().get(7));
+        assertEquals("b5", game.moves().get(17));
+        assertEquals("Rd8#", game.moves().get(32));
+    }
+
+    @Test
+    void replaysToMate() throws Exception {
+        ChessGame end = read(OPERA_GAME).get(0).replay();
+        assertTrue(end.isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void skipsNestedVariationsAndGlyphs() throws IOException {
+        PgnGame game = read("1. e4 $1 (1. d4 (1. c4 {a (comment)}) d5) 1... c5 ; line comment\n2.Nf3 *").get(0);
+        assertEquals(List.of("e4", "c5", "Nf3"), game.moves());
+        assertEquals("*", game.result());
+    }
+
+    @Test
+    void splitsGamesWithoutResult() throws IOException {
+        List<PgnGame> games = read("[Event \"a\"]\n1. e4 e5\n\n[Event \"b\"]\n1. d4 0-1\n");
+        assertEquals(2, games.size());
+        assertEquals("*", games.get(0).result());
+        assertEquals(List.of("d4"), games.get(1).moves());
+        assertEquals("b", games.get(1).tags().get("Event"));
+    }
+
+    @Test
+    void splitsTagSectionWithoutMovetext() throws IOException {
+        List<PgnGame> games = read("[Event \"a\"][White \"x\"]\n\n[Event \"b\"][Black \"y\"] 1. e4 e5 1-0\n");
+        assertEquals(2, games.size());
+        assertEquals(Map.of("Event", "a", "White", "x"), games.get(0).tags());
+        assertEquals(List.of(), games.get(0).moves());
+        assertEquals("*", games.get(0).result());
+        assertEquals(Map.of("Event", "b", "Black", "y"), games.get(1).tags());
+        assertEquals(List.of("e4", "e5"), games.get(1).moves());
+        assertEquals("1-0", games.get(1).result());
+        // Tags on consecutive lines still form one section
+        assertEquals(1, read("[Event \"a\"]\r\n[White \"x\"]\r\n\r\n1. e4 *").size());
+    }
+
+    @Test
+    void startsFromFenTag() throws Exception {
+        PgnGame game = read("[SetUp \"1\"]\n[FEN \"4k3/8/8/8/8/8/8/R3K3 w Q - 0 1\"]\n1. O-O-O Kf7 2. Rd7+ *").get(0);
+        assertEquals("8/3R1k2/8/8/8/8/8/2K5 b - - 3 2", game.replay().toFen());
+    }
+
+    @Test
+    void writesWhatItReads() throws Exception {
+        PgnGame game = read(OPERA_GAME).get(0);
+        List<ChessMove> played = new ArrayList<>();
+        ChessGame board = game.startPosition();
+        for (String san : game.moves()) {
+            ChessMove move = San.parse(board, san);
+            played.add(move);
+            board.makeMove(move);
+        }
+        PgnGame written = PgnGame.of(game.tags(), played, game.result());
+        assertEquals(game.moves(), written.moves());
+        assertEquals(game, read(written.toPgn()).get(0));
+    }
+
+    @Test
+    void reportsIllegalMove() throws IOException {
+        PgnGame game = read("1. e4 e5 2. Ke3 *").get(0);
+        InvalidMoveException e = assertThrows(InvalidMoveException.class, game::replay);
+        assertTrue(e.getMessage().contains("2. Ke3"), e.getMessage());
+    }
+
+    @Test
+    void importerCountsGamesAndFailures() throws IOException {
+        String bad = "[Event \"bad\"]\n1. e4 e5 2. Nf6 *\n\n";
+        Path file = write((OPERA_GAME + "\n").repeat(20) + bad + OPERA_GAME);
+        PgnImporter.Summary summary = new PgnImporter(3).importFile(file);
+        assertEquals(22, summary.games());
+        assertEquals(1, summary.failed());
+        assertEquals(21 * 33, summary.plies());
+        assertEquals(21, summary.failures().get(0).game());
+    }
+
+    private static List<PgnGame> read(String pgn) throws IOException {
+        try (PgnReader reader = new PgnReader(write(pgn))) {
+            List<PgnGame> games = new ArrayList<>();
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                games.add(game);
+            }
+            return games;
+        }
+    }
+
+    private static Path write(String pgn) throws IOException {
+        Path file = Files.createTempFile("games", ".pgn");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, pgn);
+        return file;
+    }
+}